@@ -22,6 +22,15 @@ dependencies {
 	// WebFlux for reactive WebClient
 	implementation("org.springframework.boot:spring-boot-starter-webflux")
 
+	// Spring MVC, only used by the blocking profile (virtual threads + RestClient)
+	implementation("org.springframework.boot:spring-boot-starter-webmvc")
+
+	// io_uring transport, opt-in with -PioUring (Reactor Netty prefers it over epoll when present)
+	if (project.hasProperty("ioUring")) {
+		runtimeOnly("io.netty:netty-transport-native-io_uring::linux-x86_64")
+		runtimeOnly("io.netty:netty-transport-native-io_uring::linux-aarch_64")
+	}
+
 	// Validation
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 
@@ -30,6 +39,7 @@ dependencies {
 
 	// Actuator for metrics and health checks
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
 	// Resilience4j for Circuit Breaker
 	implementation("io.github.resilience4j:resilience4j-spring-boot3:2.3.0")
@@ -55,3 +65,61 @@ tasks.withType<Test> {
 	systemProperty("junit.jupiter.execution.parallel.enabled", "false")
 	maxParallelForks = 1
 }
+
+// Fast startup ---------------------------------------------------------------------------
+// ./gradlew cdsArchive [-Paot]   extracts the boot jar into build/cds and records an AppCDS
+//                                archive from a training run that exits once the context is
+//                                refreshed. Run the extracted jar with the archive:
+//   java -XX:SharedArchiveFile=build/cds/application.jsa [-Dspring.aot.enabled=true] \
+//        -jar build/cds/ms--globant-products-0.0.1-SNAPSHOT.jar
+// -Paot adds Spring AOT processing to the jar. Bean conditions and profiles are frozen at build
+// time with the profiles in -PaotProfiles (default profile otherwise).
+// ./gradlew nativeImage -Paot    builds a GraalVM native executable in build/native when
+//                                GRAALVM_HOME points to a GraalVM distribution.
+if (project.hasProperty("aot")) {
+	apply(plugin = "org.springframework.boot.aot")
+	tasks.named<JavaExec>("processAot") {
+		(project.findProperty("aotProfiles") as String?)?.let { args("--spring.profiles.active=$it") }
+	}
+}
+
+val javaLauncher = javaToolchains.launcherFor(java.toolchain)
+val cdsDir = layout.buildDirectory.dir("cds")
+val bootJarFile = tasks.bootJar.flatMap { it.archiveFile }
+
+val extractBootJar by tasks.registering(Exec::class) {
+	group = "build"
+	description = "Extracts the boot jar into a CDS-friendly layout in build/cds."
+	inputs.file(bootJarFile)
+	outputs.dir(cdsDir)
+	executable = javaLauncher.get().executablePath.asFile.absolutePath
+	args("-Djarmode=tools", "-jar", bootJarFile.get().asFile.absolutePath,
+		"extract", "--destination", cdsDir.get().asFile.absolutePath, "--force")
+}
+
+val cdsArchive by tasks.registering(Exec::class) {
+	group = "build"
+	description = "Records an AppCDS archive from a training run of the extracted application."
+	dependsOn(extractBootJar)
+	outputs.file(cdsDir.map { it.file("application.jsa") })
+	executable = javaLauncher.get().executablePath.asFile.absolutePath
+	args("-XX:ArchiveClassesAtExit=application.jsa", "-Dspring.context.exit=onRefresh")
+	if (project.hasProperty("aot")) {
+		args("-Dspring.aot.enabled=true")
+	}
+	args("-jar", bootJarFile.get().asFile.name, "--server.port=0")
+	workingDir(cdsDir)
+}
+
+tasks.register<Exec>("nativeImage") {
+	group = "build"
+	description = "Builds a GraalVM native executable from the AOT-processed application (-Paot)."
+	dependsOn(extractBootJar)
+	val nativeImageTool = providers.environmentVariable("GRAALVM_HOME").map { "$it/bin/native-image" }
+	onlyIf("requires -Paot and GRAALVM_HOME") {
+		project.hasProperty("aot") && nativeImageTool.map { file(it).canExecute() }.getOrElse(false)
+	}
+	executable = nativeImageTool.getOrElse("native-image")
+	args("--no-fallback", "-o", layout.buildDirectory.file("native/ms-globant-products").get().asFile.absolutePath,
+		"-jar", cdsDir.get().file(bootJarFile.get().asFile.name).asFile.absolutePath)
+}
@@ -0,0 +1,163 @@
+package com.globant.david.msglobantproducts.application;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded lane for work that has to wait on the upstream.
+ * <p>
+ * At most {@code maxConcurrent} units of work run at once; up to {@code maxQueued} more wait
+ * in FIFO order for at most {@code maxQueueWait}. Anything beyond that fails fast with
+ * {@link AdmissionRejectedException}, so slow work cannot pile up without bound.
+ */
+public class AdmissionLane {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int RUNNING = 2;
+    private static final int CANCELLED = 3;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration maxQueueWait;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Ticket> waiters = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionLane(String name, int maxConcurrent, int maxQueued, Duration maxQueueWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxQueueWait = maxQueueWait;
+    }
+
+    public <T> Flux<T> submit(Supplier<Flux<T>> work) {
+        return Flux.defer(() -> {
+            if (waiters.isEmpty() && tryAcquire()) {
+                return run(work);
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return reject("queue full");
+            }
+            Ticket ticket = new Ticket();
+            waiters.offer(ticket);
+            dispatch();
+            return ticket.turn.asMono()
+                    .doOnCancel(ticket::cancel)
+                    .timeout(maxQueueWait, Flux.<Void>defer(() -> reject("queue wait exceeded")).then())
+                    .thenMany(Flux.defer(() -> ticket.state.compareAndSet(GRANTED, RUNNING)
+                            ? run(work)
+                            : Flux.<T>empty()));
+        });
+    }
+
+    public int active() {
+        return active.get();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * How long the oldest work still waiting has been queued, zero once the queue is drained.
+     * Computed on every call, so it falls back as soon as the pressure goes away.
+     */
+    public Duration oldestQueueWait() {
+        Iterator<Ticket> tickets = waiters.iterator();
+        while (tickets.hasNext()) {
+            Ticket ticket = tickets.next();
+            int state = ticket.state.get();
+            if (state == WAITING) {
+                return Duration.ofNanos(System.nanoTime() - ticket.enqueuedAt);
+            }
+            if (state == CANCELLED) {
+                tickets.remove();
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    private <T> Flux<T> run(Supplier<Flux<T>> work) {
+        return Flux.defer(work).doFinally(__ -> release());
+    }
+
+    private <T> Flux<T> reject(String reason) {
+        rejected.increment();
+        return Flux.error(new AdmissionRejectedException("Lane " + name + " rejected request: " + reason));
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        active.decrementAndGet();
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Ticket next = pollWaiting();
+            if (next == null) {
+                active.decrementAndGet();
+                // A waiter may have been queued after the poll, re-check before leaving
+                continue;
+            }
+            queued.decrementAndGet();
+            next.turn.tryEmitEmpty();
+        }
+    }
+
+    private Ticket pollWaiting() {
+        Ticket ticket;
+        while ((ticket = waiters.poll()) != null) {
+            if (ticket.state.compareAndSet(WAITING, GRANTED)) {
+                return ticket;
+            }
+        }
+        return null;
+    }
+
+    private final class Ticket {
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final Sinks.Empty<Void> turn = Sinks.empty();
+        private final long enqueuedAt = System.nanoTime();
+
+        void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                queued.decrementAndGet();
+            } else if (state.compareAndSet(GRANTED, CANCELLED)) {
+                release();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.globant.david.msglobantproducts.application;
+
+/**
+ * Signals that a request was not admitted because the lane it needs is saturated.
+ * Callers should retry later.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    public AdmissionRejectedException(String message) {
+        super(message, null, false, false);
+    }
+}
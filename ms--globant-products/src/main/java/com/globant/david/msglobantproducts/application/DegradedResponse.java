@@ -0,0 +1,38 @@
+package com.globant.david.msglobantproducts.application;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-request flag raised when the upstream failed and part of the response was left out or
+ * served from stale cache, so the response must not be cached by this service or by clients.
+ * <p>
+ * Travels in the Reactor context under {@link #CONTEXT_KEY}; requests without one, such as
+ * prefetches and warmups, are not tracked.
+ */
+public final class DegradedResponse {
+
+    public static final String CONTEXT_KEY = DegradedResponse.class.getName();
+
+    private volatile boolean degraded;
+
+    public void markDegraded() {
+        degraded = true;
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * Marks the response of the subscribing request as degraded and then answers {@code fallback}.
+     */
+    public static <T> Mono<T> fallback(Mono<T> fallback) {
+        return Mono.deferContextual(context -> {
+            DegradedResponse response = context.getOrDefault(CONTEXT_KEY, null);
+            if (response != null) {
+                response.markDegraded();
+            }
+            return fallback;
+        });
+    }
+}
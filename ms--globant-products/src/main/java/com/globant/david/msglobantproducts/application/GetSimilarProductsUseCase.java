@@ -1,14 +1,15 @@
 package com.globant.david.msglobantproducts.application;
 
-import com.github.benmanes.caffeine.cache.Cache;
 import com.globant.david.msglobantproducts.domain.model.ProductDetail;
 import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class GetSimilarProductsUseCase {
@@ -16,13 +17,41 @@ public class GetSimilarProductsUseCase {
     private static final Logger log = LoggerFactory.getLogger(GetSimilarProductsUseCase.class);
 
     private final ProductRepository productRepository;
+    private final SimilarProductsPrefetcher prefetcher;
+    private final AdmissionLane missLane;
 
-    public GetSimilarProductsUseCase(ProductRepository productRepository) {
+    public GetSimilarProductsUseCase(
+            ProductRepository productRepository,
+            SimilarProductsPrefetcher prefetcher,
+            AdmissionLane missLane) {
         this.productRepository = productRepository;
+        this.prefetcher = prefetcher;
+        this.missLane = missLane;
     }
 
+    /**
+     * Fully cached responses are answered synchronously; everything else goes through the
+     * miss lane, so requests waiting on a slow upstream cannot crowd out cache hits.
+     */
     public Flux<ProductDetail> execute(String productId) {
+        return productRepository.findCachedSimilarProducts(productId)
+                .map(Flux::fromIterable)
+                .switchIfEmpty(Mono.fromSupplier(() -> missLane.submit(() -> fetchSimilarProducts(productId))))
+                .flatMapMany(Function.identity());
+    }
+
+    /**
+     * Probes the fast path quietly, so a request checked here and then executed is counted once.
+     */
+    public boolean isFullyCached(String productId) {
+        return productRepository.peekCachedSimilarProducts(productId).isPresent();
+    }
+
+    private Flux<ProductDetail> fetchSimilarProducts(String productId) {
+        // Neighbours are prefetched only once the response is complete, so they never
+        // compete with the request itself
         return productRepository.findSimilarIds(productId)
-                .flatMapMany(productRepository::findProductDetails);
+                .flatMapMany(similarIds -> productRepository.findProductDetails(similarIds)
+                        .doOnComplete(() -> prefetcher.prefetchNeighbours(similarIds)));
     }
 }
@@ -0,0 +1,17 @@
+package com.globant.david.msglobantproducts.application;
+
+import java.util.List;
+
+/**
+ * Warms the caches for products that are likely to be requested next.
+ * <p>
+ * Implementations must return immediately: prefetching is best effort and never delays
+ * or fails the request that triggered it.
+ */
+public interface SimilarProductsPrefetcher {
+
+    SimilarProductsPrefetcher NONE = similarIds -> {
+    };
+
+    void prefetchNeighbours(List<String> similarIds);
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 
 public record ProductDetail(
 
@@ -30,4 +31,10 @@ public record ProductDetail(
     public static ProductDetail of(String id, String name, BigDecimal price) {
         return new ProductDetail(id, name, price, true);
     }
+
+    public ProductDetail withAvailability(Boolean availability) {
+        return Objects.equals(this.availability, availability)
+                ? this
+                : new ProductDetail(id, name, price, availability);
+    }
 }
@@ -5,6 +5,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository {
 
@@ -13,4 +14,22 @@ public interface ProductRepository {
     Mono<ProductDetail> findProductDetail(String productId);
 
     Flux<ProductDetail> findProductDetails(List<String> productIds);
+
+    /**
+     * Emits the similar products of {@code productId} only if they can be answered entirely
+     * from local state, computed on subscription without touching the upstream; completes
+     * empty otherwise.
+     */
+    default Mono<List<ProductDetail>> findCachedSimilarProducts(String productId) {
+        return Mono.empty();
+    }
+
+    /**
+     * Same answer as {@link #findCachedSimilarProducts}, synchronously and without recording it
+     * in metrics or cache statistics, for callers deciding what to do with a request before
+     * serving it.
+     */
+    default Optional<List<ProductDetail>> peekCachedSimilarProducts(String productId) {
+        return Optional.empty();
+    }
 }
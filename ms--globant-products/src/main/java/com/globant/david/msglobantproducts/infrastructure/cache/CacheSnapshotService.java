@@ -0,0 +1,278 @@
+package com.globant.david.msglobantproducts.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically snapshots {@code productDetailCache}, {@code availabilityCache} and
+ * {@code similarIdsCache} to a local file and restores them on startup.
+ * <p>
+ * Restoring runs as an {@link ApplicationRunner}, so it completes before the readiness state
+ * switches to {@code ACCEPTING_TRAFFIC}. Every entry carries its original write timestamp:
+ * entries whose TTL has elapsed are dropped and the rest are restored with only their
+ * remaining lifetime. A {@link TieredProductDetailCache} is saved and restored with both of
+ * its tiers. Snapshots are written on a dedicated thread, never on the event loop.
+ */
+@Component
+@Profile("!integration")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "cache.snapshot.enabled", havingValue = "true")
+public class CacheSnapshotService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheSnapshotService.class);
+
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+    private static final short VERSION = 1;
+    private static final byte SECTION_END = 0;
+    private static final byte SECTION_PRODUCT_DETAILS = 1;
+    private static final byte SECTION_SIMILAR_IDS = 2;
+    private static final byte SECTION_AVAILABILITY = 3;
+
+    private final Cache<String, ProductDetail> productDetailCache;
+    private final Cache<String, Boolean> availabilityCache;
+    private final Cache<String, List<String>> similarIdsCache;
+    private final Path snapshotFile;
+    private final Duration interval;
+    private final Duration productDetailTtl;
+    private final Duration availabilityTtl;
+    private final Duration similarIdsTtl;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    public CacheSnapshotService(
+            Cache<String, ProductDetail> productDetailCache,
+            Cache<String, Boolean> availabilityCache,
+            Cache<String, List<String>> similarIdsCache,
+            @Value("${cache.snapshot.file:cache-snapshot.bin}") Path snapshotFile,
+            @Value("${cache.snapshot.interval:1m}") Duration interval,
+            @Value("${cache.product-detail.ttl:10m}") Duration productDetailTtl,
+            @Value("${cache.availability.ttl:1m}") Duration availabilityTtl,
+            @Value("${cache.similar-ids.ttl:5m}") Duration similarIdsTtl) {
+        this(productDetailCache, availabilityCache, similarIdsCache, snapshotFile, interval, productDetailTtl,
+                availabilityTtl, similarIdsTtl, Clock.systemUTC());
+    }
+
+    CacheSnapshotService(
+            Cache<String, ProductDetail> productDetailCache,
+            Cache<String, Boolean> availabilityCache,
+            Cache<String, List<String>> similarIdsCache,
+            Path snapshotFile,
+            Duration interval,
+            Duration productDetailTtl,
+            Duration availabilityTtl,
+            Duration similarIdsTtl,
+            Clock clock) {
+        this.productDetailCache = productDetailCache;
+        this.availabilityCache = availabilityCache;
+        this.similarIdsCache = similarIdsCache;
+        this.snapshotFile = snapshotFile;
+        this.interval = interval;
+        this.productDetailTtl = productDetailTtl;
+        this.availabilityTtl = availabilityTtl;
+        this.similarIdsTtl = similarIdsTtl;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        restore();
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        snapshotQuietly();
+    }
+
+    public synchronized void snapshot() throws IOException {
+        long now = clock.millis();
+        List<SnapshotEntry<ProductDetail>> details = productDetailCache instanceof TieredProductDetailCache tiered
+                ? collect(tiered)
+                : collect(productDetailCache, productDetailTtl, now);
+        List<SnapshotEntry<Boolean>> availability = collect(availabilityCache, availabilityTtl, now);
+        List<SnapshotEntry<List<String>>> similarIds = collect(similarIdsCache, similarIdsTtl, now);
+
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        if (snapshotFile.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(now);
+
+            out.writeByte(SECTION_PRODUCT_DETAILS);
+            out.writeInt(details.size());
+            for (SnapshotEntry<ProductDetail> entry : details) {
+                out.writeUTF(entry.key());
+                out.writeLong(entry.writtenAtMillis());
+                ProductDetailCodec.write(entry.value(), out);
+            }
+
+            out.writeByte(SECTION_AVAILABILITY);
+            out.writeInt(availability.size());
+            for (SnapshotEntry<Boolean> entry : availability) {
+                out.writeUTF(entry.key());
+                out.writeLong(entry.writtenAtMillis());
+                out.writeBoolean(entry.value());
+            }
+
+            out.writeByte(SECTION_SIMILAR_IDS);
+            out.writeInt(similarIds.size());
+            for (SnapshotEntry<List<String>> entry : similarIds) {
+                out.writeUTF(entry.key());
+                out.writeLong(entry.writtenAtMillis());
+                out.writeInt(entry.value().size());
+                for (String id : entry.value()) {
+                    out.writeUTF(id);
+                }
+            }
+
+            out.writeByte(SECTION_END);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Cache snapshot written: {} product details, {} availability flags, {} similar id lists",
+                details.size(), availability.size(), similarIds.size());
+    }
+
+    public synchronized void restore() {
+        if (!Files.exists(snapshotFile)) {
+            log.info("No cache snapshot found at {}, starting with empty caches", snapshotFile);
+            return;
+        }
+        long now = clock.millis();
+        int restored = 0;
+        int dropped = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                log.warn("Ignoring cache snapshot {}: unrecognized format", snapshotFile);
+                return;
+            }
+            in.readLong();
+            for (byte section = in.readByte(); section != SECTION_END; section = in.readByte()) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    long writtenAt = in.readLong();
+                    boolean kept = switch (section) {
+                        case SECTION_PRODUCT_DETAILS -> restoreProductDetail(key, ProductDetailCodec.read(in),
+                                writtenAt, now);
+                        case SECTION_AVAILABILITY -> restoreEntry(availabilityCache, availabilityTtl, key,
+                                in.readBoolean(), writtenAt, now);
+                        case SECTION_SIMILAR_IDS -> restoreEntry(similarIdsCache, similarIdsTtl, key,
+                                readIds(in), writtenAt, now);
+                        default -> throw new IOException("Unknown snapshot section " + section);
+                    };
+                    if (kept) {
+                        restored++;
+                    } else {
+                        dropped++;
+                    }
+                }
+            }
+            log.info("Cache snapshot restored from {}: {} entries restored, {} stale entries dropped",
+                    snapshotFile, restored, dropped);
+        } catch (IOException e) {
+            log.warn("Failed to restore cache snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write cache snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private static List<String> readIds(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(in.readUTF());
+        }
+        return List.copyOf(ids);
+    }
+
+    private static <V> List<SnapshotEntry<V>> collect(Cache<String, V> cache, Duration ttl, long now) {
+        Optional<Policy.VarExpiration<String, V>> expiration = cache.policy().expireVariably();
+        List<SnapshotEntry<V>> entries = new ArrayList<>();
+        for (Map.Entry<String, V> entry : cache.asMap().entrySet()) {
+            long writtenAt = expiration
+                    .flatMap(policy -> policy.getExpiresAfter(entry.getKey()))
+                    .map(remaining -> now - ttl.minus(remaining).toMillis())
+                    .orElse(now);
+            entries.add(new SnapshotEntry<>(entry.getKey(), entry.getValue(), writtenAt));
+        }
+        return entries;
+    }
+
+    // Both tiers are saved, so a large catalog kept off-heap survives the restart
+    private static List<SnapshotEntry<ProductDetail>> collect(TieredProductDetailCache cache) {
+        List<SnapshotEntry<ProductDetail>> entries = new ArrayList<>();
+        cache.forEachEntry((key, entry) -> entries.add(new SnapshotEntry<>(key, entry.value(), entry.writtenAtMillis())));
+        return entries;
+    }
+
+    private boolean restoreProductDetail(String key, ProductDetail value, long writtenAt, long now) {
+        if (!(productDetailCache instanceof TieredProductDetailCache tiered)) {
+            return restoreEntry(productDetailCache, productDetailTtl, key, value, writtenAt, now);
+        }
+        if (now - writtenAt >= productDetailTtl.toMillis()) {
+            return false;
+        }
+        tiered.put(key, value, writtenAt);
+        return true;
+    }
+
+    private static <V> boolean restoreEntry(Cache<String, V> cache, Duration ttl, String key, V value,
+                                            long writtenAt, long now) {
+        Duration remaining = ttl.minusMillis(now - writtenAt);
+        if (remaining.isNegative() || remaining.isZero()) {
+            return false;
+        }
+        cache.policy().expireVariably().ifPresentOrElse(
+                expiration -> expiration.put(key, value, remaining),
+                () -> cache.put(key, value));
+        return true;
+    }
+
+    private record SnapshotEntry<V>(String key, V value, long writtenAtMillis) {}
+}
@@ -0,0 +1,103 @@
+package com.globant.david.msglobantproducts.infrastructure.cache;
+
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A composed {@code /similar} response as sent to clients: the products, their serialized
+ * JSON body, optionally its gzip encoding, and a strong ETag of the body, cached together so
+ * repeat requests skip serialization, compression and hashing. A {@code degraded} composition
+ * was built while the upstream failed and is served once, never cached.
+ * <p>
+ * Equality compares the bodies by content, and {@link #toString()} shows their sizes only.
+ */
+public record ComposedSimilarProducts(List<ProductDetail> products, byte[] body, byte[] gzipBody, String etag,
+                                      boolean degraded) {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public ComposedSimilarProducts {
+        products = List.copyOf(products);
+    }
+
+    public static ComposedSimilarProducts of(List<ProductDetail> products, JsonMapper jsonMapper) {
+        return of(products, jsonMapper, -1);
+    }
+
+    /**
+     * @param gzipThreshold minimum body size to precompress, or a negative value to never compress
+     */
+    public static ComposedSimilarProducts of(List<ProductDetail> products, JsonMapper jsonMapper, long gzipThreshold) {
+        return of(products, jsonMapper, gzipThreshold, false);
+    }
+
+    public static ComposedSimilarProducts of(List<ProductDetail> products, JsonMapper jsonMapper, long gzipThreshold,
+                                             boolean degraded) {
+        byte[] body = jsonMapper.writeValueAsBytes(products);
+        byte[] gzipBody = gzipThreshold >= 0 && body.length >= gzipThreshold ? gzip(body) : null;
+        return new ComposedSimilarProducts(products, body, gzipBody, etag(body), degraded);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ComposedSimilarProducts other
+                && degraded == other.degraded
+                && products.equals(other.products)
+                && Arrays.equals(body, other.body)
+                && Arrays.equals(gzipBody, other.gzipBody)
+                && Objects.equals(etag, other.etag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(products, Arrays.hashCode(body), Arrays.hashCode(gzipBody), etag, degraded);
+    }
+
+    @Override
+    public String toString() {
+        return "ComposedSimilarProducts[products=" + products
+                + ", body=" + body.length + " bytes"
+                + ", gzipBody=" + (gzipBody != null ? gzipBody.length + " bytes" : "none")
+                + ", etag=" + etag + ", degraded=" + degraded + "]";
+    }
+
+    public boolean contains(String productId) {
+        return products.stream().anyMatch(product -> productId.equals(product.id()));
+    }
+
+    /**
+     * Strong ETag of the gzip representation, which must differ from the identity one.
+     */
+    public String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    // FNV-1a over the body plus its length: stable across instances and restarts
+    static String etag(byte[] body) {
+        long hash = FNV_OFFSET;
+        for (byte b : body) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return "\"" + Long.toHexString(hash) + "-" + Integer.toHexString(body.length) + "\"";
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,361 @@
+package com.globant.david.msglobantproducts.infrastructure.cache;
+
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Second-level store for {@link ProductDetail} entries kept outside the Java heap.
+ * <p>
+ * The capacity is split into fixed-size slots laid out in direct or memory-mapped slabs,
+ * one slab per segment. Each segment is guarded by its own lock and evicts with a CLOCK
+ * (second-chance) sweep once it runs out of free slots. Only the key index lives on-heap.
+ */
+public class OffHeapProductDetailStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapProductDetailStore.class);
+
+    // Slot header: payload length (int) + write timestamp in epoch millis (long)
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    public enum Mode { DIRECT, MAPPED }
+
+    private final Segment[] segments;
+    private final int slotSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final FileChannel mappedChannel;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public OffHeapProductDetailStore(Mode mode, long capacityBytes, int slotSize, int segmentCount,
+                                     Duration ttl, Path mappedFile) {
+        this(mode, capacityBytes, slotSize, segmentCount, ttl, mappedFile, Clock.systemUTC());
+    }
+
+    OffHeapProductDetailStore(Mode mode, long capacityBytes, int slotSize, int segmentCount,
+                              Duration ttl, Path mappedFile, Clock clock) {
+        if (slotSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Slot size must be larger than " + HEADER_BYTES + " bytes");
+        }
+        if (Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("Segment count must be a power of two: " + segmentCount);
+        }
+        long slotsPerSegment = capacityBytes / slotSize / segmentCount;
+        if (slotsPerSegment < 1 || slotsPerSegment * slotSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity " + capacityBytes + " cannot be split into "
+                    + segmentCount + " segments of " + slotSize + "-byte slots");
+        }
+        int segmentBytes = (int) (slotsPerSegment * slotSize);
+
+        this.slotSize = slotSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.mappedChannel = mode == Mode.MAPPED ? openMappedFile(mappedFile) : null;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(allocate(mode, i, segmentBytes), (int) slotsPerSegment);
+        }
+        log.info("Off-heap product detail store initialized: mode={}, capacity={} bytes, slots={}",
+                mode, (long) segmentBytes * segmentCount, slotsPerSegment * segmentCount);
+    }
+
+    public void put(String key, ProductDetail value) {
+        put(key, value, clock.millis());
+    }
+
+    /**
+     * A value too large for a slot is rejected and drops the key's previous value, which would
+     * otherwise be served again once the newer value leaves the on-heap tier.
+     */
+    public void put(String key, ProductDetail value, long writtenAtMillis) {
+        byte[] payload = ProductDetailCodec.encode(value);
+        if (payload.length + HEADER_BYTES > slotSize) {
+            rejections.increment();
+            segmentFor(key).remove(key);
+            return;
+        }
+        segmentFor(key).put(key, payload, writtenAtMillis);
+    }
+
+    public Entry get(String key) {
+        Entry entry = segmentFor(key).get(key, clock.millis(), true);
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Like {@link #get} but without counting a hit or miss or giving the entry a second chance.
+     */
+    public Entry peek(String key) {
+        return segmentFor(key).get(key, clock.millis(), false);
+    }
+
+    /**
+     * Whether a slot is held for the key, without decoding it or checking its TTL.
+     */
+    public boolean contains(String key) {
+        return segmentFor(key).contains(key);
+    }
+
+    /**
+     * Visits every live entry one segment at a time, so entries written meanwhile may be missed.
+     */
+    public void forEach(BiConsumer<String, Entry> action) {
+        long now = clock.millis();
+        for (Segment segment : segments) {
+            segment.entries(now).forEach(action);
+        }
+    }
+
+    public void remove(String key) {
+        segmentFor(key).remove(key);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long usedBytes() {
+        return size() * slotSize;
+    }
+
+    public long capacityBytes() {
+        long capacity = 0;
+        for (Segment segment : segments) {
+            capacity += (long) segment.slotCount * slotSize;
+        }
+        return capacity;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    public Duration ttl() {
+        return Duration.ofMillis(ttlMillis);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (mappedChannel != null) {
+            try {
+                mappedChannel.close();
+            } catch (IOException e) {
+                log.warn("Error closing off-heap mapped file: {}", e.getMessage());
+            }
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    private ByteBuffer allocate(Mode mode, int index, int segmentBytes) {
+        if (mode == Mode.DIRECT) {
+            return ByteBuffer.allocateDirect(segmentBytes);
+        }
+        try {
+            return mappedChannel.map(FileChannel.MapMode.READ_WRITE, (long) index * segmentBytes, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map off-heap segment " + index, e);
+        }
+    }
+
+    private static FileChannel openMappedFile(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open off-heap mapped file " + file, e);
+        }
+    }
+
+    public record Entry(ProductDetail value, long writtenAtMillis) {}
+
+    private final class Segment {
+
+        private final ByteBuffer slab;
+        private final int slotCount;
+        private final Map<String, Integer> index = new HashMap<>();
+        private final String[] slotKeys;
+        private final boolean[] referenced;
+        private final int[] freeSlots;
+        private int freeTop;
+        private int hand;
+
+        Segment(ByteBuffer slab, int slotCount) {
+            this.slab = slab;
+            this.slotCount = slotCount;
+            this.slotKeys = new String[slotCount];
+            this.referenced = new boolean[slotCount];
+            this.freeSlots = new int[slotCount];
+            for (int i = 0; i < slotCount; i++) {
+                freeSlots[i] = slotCount - 1 - i;
+            }
+            this.freeTop = slotCount;
+        }
+
+        synchronized void put(String key, byte[] payload, long writtenAtMillis) {
+            Integer slot = index.get(key);
+            if (slot == null) {
+                slot = freeTop > 0 ? freeSlots[--freeTop] : evictOne();
+                index.put(key, slot);
+                slotKeys[slot] = key;
+            }
+            int offset = slot * slotSize;
+            slab.putInt(offset, payload.length);
+            slab.putLong(offset + Integer.BYTES, writtenAtMillis);
+            slab.put(offset + HEADER_BYTES, payload);
+            referenced[slot] = false;
+        }
+
+        Entry get(String key, long nowMillis, boolean touch) {
+            byte[] payload;
+            long writtenAt;
+            synchronized (this) {
+                Integer slot = index.get(key);
+                if (slot == null) {
+                    return null;
+                }
+                int offset = slot * slotSize;
+                writtenAt = slab.getLong(offset + Integer.BYTES);
+                if (nowMillis - writtenAt >= ttlMillis) {
+                    release(slot);
+                    return null;
+                }
+                payload = new byte[slab.getInt(offset)];
+                slab.get(offset + HEADER_BYTES, payload);
+                if (touch) {
+                    referenced[slot] = true;
+                }
+            }
+            return new Entry(ProductDetailCodec.decode(payload), writtenAt);
+        }
+
+        // Payloads are copied under the lock and decoded after releasing it
+        Map<String, Entry> entries(long nowMillis) {
+            List<String> keys = new ArrayList<>();
+            List<byte[]> payloads = new ArrayList<>();
+            List<Long> writtenAts = new ArrayList<>();
+            synchronized (this) {
+                for (Map.Entry<String, Integer> indexed : index.entrySet()) {
+                    int offset = indexed.getValue() * slotSize;
+                    long writtenAt = slab.getLong(offset + Integer.BYTES);
+                    if (nowMillis - writtenAt < ttlMillis) {
+                        byte[] payload = new byte[slab.getInt(offset)];
+                        slab.get(offset + HEADER_BYTES, payload);
+                        keys.add(indexed.getKey());
+                        payloads.add(payload);
+                        writtenAts.add(writtenAt);
+                    }
+                }
+            }
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                entries.put(keys.get(i), new Entry(ProductDetailCodec.decode(payloads.get(i)), writtenAts.get(i)));
+            }
+            return entries;
+        }
+
+        synchronized boolean contains(String key) {
+            return index.containsKey(key);
+        }
+
+        synchronized void remove(String key) {
+            Integer slot = index.get(key);
+            if (slot != null) {
+                release(slot);
+            }
+        }
+
+        synchronized void clear() {
+            index.clear();
+            for (int i = 0; i < slotCount; i++) {
+                slotKeys[i] = null;
+                referenced[i] = false;
+                freeSlots[i] = slotCount - 1 - i;
+            }
+            freeTop = slotCount;
+            hand = 0;
+        }
+
+        synchronized int size() {
+            return index.size();
+        }
+
+        private int evictOne() {
+            while (true) {
+                int slot = hand;
+                hand = (hand + 1) % slotCount;
+                if (referenced[slot]) {
+                    referenced[slot] = false;
+                } else {
+                    index.remove(slotKeys[slot]);
+                    slotKeys[slot] = null;
+                    evictions.increment();
+                    return slot;
+                }
+            }
+        }
+
+        private void release(int slot) {
+            index.remove(slotKeys[slot]);
+            slotKeys[slot] = null;
+            referenced[slot] = false;
+            freeSlots[freeTop++] = slot;
+        }
+    }
+}
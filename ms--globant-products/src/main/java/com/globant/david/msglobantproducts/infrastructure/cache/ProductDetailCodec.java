@@ -0,0 +1,73 @@
+package com.globant.david.msglobantproducts.infrastructure.cache;
+
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * Compact binary encoding of {@link ProductDetail} used by the off-heap cache tier.
+ * <p>
+ * Layout: a presence bitmask followed by the non-null fields in declaration order.
+ * Prices are stored as their plain string form so scale is preserved exactly.
+ */
+public final class ProductDetailCodec {
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_NAME = 1 << 1;
+    private static final int HAS_PRICE = 1 << 2;
+    private static final int HAS_AVAILABILITY = 1 << 3;
+    private static final int AVAILABLE = 1 << 4;
+
+    private ProductDetailCodec() {
+    }
+
+    public static byte[] encode(ProductDetail detail) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(detail, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ProductDetail decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void write(ProductDetail detail, DataOutput out) throws IOException {
+        int flags = 0;
+        if (detail.id() != null) flags |= HAS_ID;
+        if (detail.name() != null) flags |= HAS_NAME;
+        if (detail.price() != null) flags |= HAS_PRICE;
+        if (detail.availability() != null) {
+            flags |= HAS_AVAILABILITY;
+            if (detail.availability()) flags |= AVAILABLE;
+        }
+        out.writeByte(flags);
+        if (detail.id() != null) out.writeUTF(detail.id());
+        if (detail.name() != null) out.writeUTF(detail.name());
+        if (detail.price() != null) out.writeUTF(detail.price().toPlainString());
+    }
+
+    public static ProductDetail read(DataInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        String id = (flags & HAS_ID) != 0 ? in.readUTF() : null;
+        String name = (flags & HAS_NAME) != 0 ? in.readUTF() : null;
+        BigDecimal price = (flags & HAS_PRICE) != 0 ? new BigDecimal(in.readUTF()) : null;
+        Boolean availability = (flags & HAS_AVAILABILITY) != 0 ? (flags & AVAILABLE) != 0 : null;
+        return new ProductDetail(id, name, price, availability);
+    }
+}
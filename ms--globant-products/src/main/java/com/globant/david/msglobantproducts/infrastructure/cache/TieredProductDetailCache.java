@@ -0,0 +1,386 @@
+package com.globant.david.msglobantproducts.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Two-level product detail cache: a small on-heap Caffeine L1 backed by an
+ * {@link OffHeapProductDetailStore} L2.
+ * <p>
+ * Writes go to both tiers so the L2 can hold the whole catalog. An L1 miss that hits the
+ * L2 promotes the entry back to the L1 with its remaining time-to-live, so promotion never
+ * extends an entry's lifetime.
+ * <p>
+ * {@link #asMap()} and {@link #stats()} cover both tiers: the map reads without promoting
+ * and its compound operations check and write the tiers separately, so unlike Caffeine's they
+ * are not atomic. {@link #policy()} is the on-heap tier's; callers that need the write time
+ * of every entry use {@link #forEachEntry} and {@link #put(String, ProductDetail, long)}.
+ */
+public class TieredProductDetailCache implements Cache<String, ProductDetail> {
+
+    private final Cache<String, ProductDetail> onHeap;
+    private final OffHeapProductDetailStore offHeap;
+    private final Clock clock;
+    private final ConcurrentMap<String, ProductDetail> asMap = new TieredMap();
+
+    public TieredProductDetailCache(Cache<String, ProductDetail> onHeap, OffHeapProductDetailStore offHeap) {
+        this(onHeap, offHeap, Clock.systemUTC());
+    }
+
+    TieredProductDetailCache(Cache<String, ProductDetail> onHeap, OffHeapProductDetailStore offHeap, Clock clock) {
+        this.onHeap = onHeap;
+        this.offHeap = offHeap;
+        this.clock = clock;
+    }
+
+    @Override
+    public ProductDetail getIfPresent(String key) {
+        ProductDetail value = onHeap.getIfPresent(key);
+        return value != null ? value : promote(key);
+    }
+
+    @Override
+    public ProductDetail get(String key, Function<? super String, ? extends ProductDetail> mappingFunction) {
+        ProductDetail value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = onHeap.get(key, mappingFunction);
+        if (value != null) {
+            offHeap.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Map<String, ProductDetail> getAllPresent(Iterable<? extends String> keys) {
+        Map<String, ProductDetail> result = new HashMap<>();
+        for (String key : keys) {
+            ProductDetail value = getIfPresent(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, ProductDetail> getAll(
+            Iterable<? extends String> keys,
+            Function<? super Set<? extends String>, ? extends Map<? extends String, ? extends ProductDetail>> mappingFunction) {
+        Map<String, ProductDetail> result = getAllPresent(keys);
+        Set<String> missing = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (!result.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<? extends String, ? extends ProductDetail> loaded = mappingFunction.apply(missing);
+            loaded.forEach((key, value) -> {
+                put(key, value);
+                result.put(key, value);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void put(String key, ProductDetail value) {
+        onHeap.put(key, value);
+        offHeap.put(key, value);
+    }
+
+    /**
+     * Writes an entry with its original write time, so it only lives for the rest of its TTL.
+     */
+    public void put(String key, ProductDetail value, long writtenAtMillis) {
+        offHeap.put(key, value, writtenAtMillis);
+        putOnHeap(key, value, writtenAtMillis);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends ProductDetail> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        onHeap.invalidate(key);
+        offHeap.remove(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends String> keys) {
+        for (String key : keys) {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        onHeap.invalidateAll();
+        offHeap.clear();
+    }
+
+    /**
+     * Off-heap entries plus those only kept on-heap because they did not fit an off-heap slot.
+     */
+    @Override
+    public long estimatedSize() {
+        long onHeapOnly = onHeap.asMap().keySet().stream()
+                .filter(key -> !offHeap.contains(key))
+                .count();
+        return offHeap.size() + onHeapOnly;
+    }
+
+    /**
+     * Hits in either tier, misses in both; loads are the on-heap tier's and evictions the
+     * off-heap tier's, since an entry evicted from the L1 is still cached in the L2.
+     */
+    @Override
+    public CacheStats stats() {
+        CacheStats onHeapStats = onHeap.stats();
+        return CacheStats.of(
+                onHeapStats.hitCount() + offHeap.hitCount(),
+                offHeap.missCount(),
+                onHeapStats.loadSuccessCount(),
+                onHeapStats.loadFailureCount(),
+                onHeapStats.totalLoadTime(),
+                offHeap.evictionCount(),
+                offHeap.evictionCount());
+    }
+
+    @Override
+    public ConcurrentMap<String, ProductDetail> asMap() {
+        return asMap;
+    }
+
+    @Override
+    public void cleanUp() {
+        onHeap.cleanUp();
+    }
+
+    @Override
+    public Policy<String, ProductDetail> policy() {
+        return onHeap.policy();
+    }
+
+    /**
+     * Visits every live entry of both tiers with its write time, without promoting.
+     */
+    public void forEachEntry(BiConsumer<String, OffHeapProductDetailStore.Entry> action) {
+        Set<String> visited = new HashSet<>();
+        offHeap.forEach((key, entry) -> {
+            visited.add(key);
+            action.accept(key, entry);
+        });
+        // Entries too large for an off-heap slot only live on-heap
+        long now = clock.millis();
+        Optional<Policy.VarExpiration<String, ProductDetail>> expiration = onHeap.policy().expireVariably();
+        onHeap.asMap().forEach((key, value) -> {
+            if (!visited.contains(key)) {
+                long writtenAt = expiration
+                        .flatMap(policy -> policy.getExpiresAfter(key))
+                        .map(remaining -> now - offHeap.ttl().minus(remaining).toMillis())
+                        .orElse(now);
+                action.accept(key, new OffHeapProductDetailStore.Entry(value, writtenAt));
+            }
+        });
+    }
+
+    public Cache<String, ProductDetail> onHeapTier() {
+        return onHeap;
+    }
+
+    public OffHeapProductDetailStore offHeapTier() {
+        return offHeap;
+    }
+
+    private ProductDetail promote(String key) {
+        OffHeapProductDetailStore.Entry entry = offHeap.get(key);
+        if (entry == null) {
+            return null;
+        }
+        putOnHeap(key, entry.value(), entry.writtenAtMillis());
+        return entry.value();
+    }
+
+    private void putOnHeap(String key, ProductDetail value, long writtenAtMillis) {
+        Duration remaining = offHeap.ttl().minusMillis(clock.millis() - writtenAtMillis);
+        if (remaining.isNegative() || remaining.isZero()) {
+            return;
+        }
+        onHeap.policy().expireVariably().ifPresentOrElse(
+                expiration -> expiration.put(key, value, remaining),
+                () -> onHeap.put(key, value));
+    }
+
+    private ProductDetail peek(String key) {
+        ProductDetail value = onHeap.policy().getIfPresentQuietly(key);
+        if (value != null) {
+            return value;
+        }
+        OffHeapProductDetailStore.Entry entry = offHeap.peek(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    private Set<String> keys() {
+        Set<String> keys = new LinkedHashSet<>(onHeap.asMap().keySet());
+        offHeap.forEach((key, entry) -> keys.add(key));
+        return keys;
+    }
+
+    private final class TieredMap extends AbstractMap<String, ProductDetail>
+            implements ConcurrentMap<String, ProductDetail> {
+
+        @Override
+        public ProductDetail get(Object key) {
+            return key instanceof String id ? peek(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public ProductDetail put(String key, ProductDetail value) {
+            ProductDetail previous = peek(key);
+            TieredProductDetailCache.this.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public ProductDetail putIfAbsent(String key, ProductDetail value) {
+            ProductDetail previous = peek(key);
+            if (previous == null) {
+                TieredProductDetailCache.this.put(key, value);
+            }
+            return previous;
+        }
+
+        @Override
+        public ProductDetail remove(Object key) {
+            if (!(key instanceof String id)) {
+                return null;
+            }
+            ProductDetail previous = peek(id);
+            invalidate(id);
+            return previous;
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            if (key instanceof String id && value != null && value.equals(peek(id))) {
+                invalidate(id);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean replace(String key, ProductDetail oldValue, ProductDetail newValue) {
+            if (oldValue.equals(peek(key))) {
+                TieredProductDetailCache.this.put(key, newValue);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public ProductDetail replace(String key, ProductDetail value) {
+            ProductDetail previous = peek(key);
+            if (previous != null) {
+                TieredProductDetailCache.this.put(key, value);
+            }
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Override
+        public int size() {
+            return keys().size();
+        }
+
+        @Override
+        public Set<Map.Entry<String, ProductDetail>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, ProductDetail>> iterator() {
+                    return new EntryIterator(keys().iterator());
+                }
+
+                @Override
+                public int size() {
+                    return TieredMap.this.size();
+                }
+            };
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, ProductDetail>> {
+
+        private final Iterator<String> keys;
+        private Map.Entry<String, ProductDetail> next;
+        private String current;
+
+        EntryIterator(Iterator<String> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && keys.hasNext()) {
+                String key = keys.next();
+                ProductDetail value = peek(key);
+                if (value != null) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(key, value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, ProductDetail> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, ProductDetail> entry = next;
+            next = null;
+            current = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            invalidate(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.globant.david.msglobantproducts.infrastructure.changefeed;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Applies catalog change events to the product caches so they can use long TTLs and still
+ * stay fresh.
+ * <p>
+ * Updates overwrite cached entries in place; deletions and updates without a payload evict.
+ * Composed results in {@code similarProductsCache} that contain a changed product, or whose
+ * similarity list changed, are always evicted since they cannot be patched reliably.
+ * <p>
+ * An event that fails to apply is logged, counted ({@code change.feed.events} with
+ * {@code outcome=failed}) and skipped. When the source itself fails it is subscribed again
+ * with exponential backoff from {@code retryBackoff} up to {@code maxRetryBackoff}
+ * ({@code change.feed.resubscriptions}), so the caches never silently stop being invalidated.
+ */
+public class ChangeFeedIngester implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedIngester.class);
+
+    private final ChangeFeedSource source;
+    private final Cache<String, ProductDetail> productDetailCache;
+    private final Cache<String, Boolean> availabilityCache;
+    private final Cache<String, List<String>> similarIdsCache;
+    private final Cache<String, ComposedSimilarProducts> similarProductsCache;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Counter appliedEvents;
+    private final Counter failedEvents;
+    private final Counter resubscriptions;
+    private Disposable subscription;
+
+    public ChangeFeedIngester(
+            ChangeFeedSource source,
+            Cache<String, ProductDetail> productDetailCache,
+            Cache<String, Boolean> availabilityCache,
+            Cache<String, List<String>> similarIdsCache,
+            Cache<String, ComposedSimilarProducts> similarProductsCache,
+            Duration retryBackoff,
+            Duration maxRetryBackoff,
+            MeterRegistry meterRegistry) {
+        this.source = source;
+        this.productDetailCache = productDetailCache;
+        this.availabilityCache = availabilityCache;
+        this.similarIdsCache = similarIdsCache;
+        this.similarProductsCache = similarProductsCache;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.appliedEvents = Counter.builder("change.feed.events").tag("outcome", "applied").register(meterRegistry);
+        this.failedEvents = Counter.builder("change.feed.events").tag("outcome", "failed").register(meterRegistry);
+        this.resubscriptions = Counter.builder("change.feed.resubscriptions").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // transientErrors: the backoff starts over once the source emits again
+        subscription = source.events()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, retryBackoff)
+                        .maxBackoff(maxRetryBackoff)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> {
+                            resubscriptions.increment();
+                            log.error("Change feed failed, subscribing again: {}", signal.failure().getMessage());
+                        }))
+                .subscribe(this::applySafely);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private void applySafely(ProductChangeEvent event) {
+        try {
+            apply(event);
+            appliedEvents.increment();
+        } catch (RuntimeException e) {
+            failedEvents.increment();
+            log.error("Skipping change feed event {} for product {}: {}", event.type(), event.productId(), e.toString());
+        }
+    }
+
+    public void apply(ProductChangeEvent event) {
+        String productId = event.productId();
+        switch (event.type()) {
+            case PRODUCT_UPDATED -> {
+                if (event.product() != null && productId.equals(event.product().id())) {
+                    productDetailCache.put(productId, event.product());
+                    if (event.product().availability() != null) {
+                        availabilityCache.put(productId, event.product().availability());
+                    } else {
+                        availabilityCache.invalidate(productId);
+                    }
+                } else {
+                    productDetailCache.invalidate(productId);
+                    availabilityCache.invalidate(productId);
+                }
+                evictComposedContaining(productId);
+            }
+            case PRODUCT_DELETED -> {
+                productDetailCache.invalidate(productId);
+                availabilityCache.invalidate(productId);
+                similarIdsCache.invalidate(productId);
+                similarProductsCache.invalidate(productId);
+                evictComposedContaining(productId);
+            }
+            case SIMILARITY_CHANGED -> {
+                if (event.similarIds() != null) {
+                    similarIdsCache.put(productId, List.copyOf(event.similarIds()));
+                } else {
+                    similarIdsCache.invalidate(productId);
+                }
+                similarProductsCache.invalidate(productId);
+            }
+        }
+        log.debug("Applied change feed event {} for product {}", event.type(), productId);
+    }
+
+    private void evictComposedContaining(String productId) {
+        similarProductsCache.asMap().values().removeIf(composed -> composed.contains(productId));
+    }
+}
@@ -0,0 +1,11 @@
+package com.globant.david.msglobantproducts.infrastructure.changefeed;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Source of catalog change events. Subscribing starts consuming; cancelling stops it.
+ */
+public interface ChangeFeedSource {
+
+    Flux<ProductChangeEvent> events();
+}
@@ -0,0 +1,177 @@
+package com.globant.david.msglobantproducts.infrastructure.changefeed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChangeFeedSource} tailing an append-only JSON Lines file.
+ * <p>
+ * Appends are picked up through NIO file watching, with a periodic re-check as a safety net
+ * for file systems that deliver watch events late. A partially written last line is held back
+ * until its newline arrives, and a file that shrinks is treated as rotated and re-read from
+ * the start. Subscribing again after a failure resumes after the last complete line read.
+ */
+public class JsonlFileChangeFeedSource implements ChangeFeedSource {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonlFileChangeFeedSource.class);
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final boolean fromBeginning;
+    private final Duration pollInterval;
+    private volatile long resumePosition = -1;
+
+    public JsonlFileChangeFeedSource(Path file, ObjectMapper objectMapper, boolean fromBeginning, Duration pollInterval) {
+        this.file = file.toAbsolutePath();
+        this.objectMapper = objectMapper;
+        this.fromBeginning = fromBeginning;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public Flux<ProductChangeEvent> events() {
+        return Flux.create(sink -> {
+            // The start offset is fixed at subscription time so no append after it is missed
+            Tailer tailer = new Tailer(sink, startPosition());
+            Thread thread = new Thread(tailer, "change-feed-tailer");
+            thread.setDaemon(true);
+            sink.onDispose(tailer::stop);
+            thread.start();
+        });
+    }
+
+    private long startPosition() {
+        if (resumePosition >= 0) {
+            return resumePosition;
+        }
+        try {
+            return !fromBeginning && Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            log.warn("Unable to read size of change feed {}, reading from the start: {}", file, e.getMessage());
+            return 0;
+        }
+    }
+
+    private final class Tailer implements Runnable {
+
+        private final FluxSink<ProductChangeEvent> sink;
+        private final ByteArrayOutputStream pendingLine = new ByteArrayOutputStream();
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+        private volatile boolean running = true;
+        private volatile WatchService watchService;
+        private long position;
+
+        Tailer(FluxSink<ProductChangeEvent> sink, long position) {
+            this.sink = sink;
+            this.position = position;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Files.createDirectories(file.getParent());
+                watchService = FileSystems.getDefault().newWatchService();
+                file.getParent().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                log.info("Tailing change feed {} from offset {}", file, position);
+
+                while (running) {
+                    readAppended();
+                    WatchKey key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ClosedWatchServiceException e) {
+                // Stopped
+            } catch (IOException e) {
+                log.error("Change feed {} failed: {}", file, e.getMessage());
+                sink.error(e);
+            } finally {
+                resumePosition = position - pendingLine.size();
+                stop();
+            }
+        }
+
+        void stop() {
+            running = false;
+            WatchService watcher = watchService;
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    log.warn("Error closing change feed watcher: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void readAppended() throws IOException {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() < position) {
+                    log.info("Change feed {} was truncated or rotated, re-reading from the start", file);
+                    position = 0;
+                    pendingLine.reset();
+                }
+                channel.position(position);
+                readBuffer.clear();
+                int read;
+                while (running && (read = channel.read(readBuffer)) > 0) {
+                    position += read;
+                    readBuffer.flip();
+                    while (readBuffer.hasRemaining()) {
+                        byte b = readBuffer.get();
+                        if (b == '\n') {
+                            emit(pendingLine.toString(StandardCharsets.UTF_8));
+                            pendingLine.reset();
+                        } else {
+                            pendingLine.write(b);
+                        }
+                    }
+                    readBuffer.clear();
+                }
+            }
+        }
+
+        private void emit(String line) {
+            if (line.isBlank()) {
+                return;
+            }
+            try {
+                ProductChangeEvent event = objectMapper.readValue(line, ProductChangeEvent.class);
+                if (event.type() == null || event.productId() == null) {
+                    log.warn("Skipping change feed line without type or productId: {}", line);
+                    return;
+                }
+                sink.next(event);
+            } catch (JacksonException e) {
+                log.warn("Skipping malformed change feed line: {}", e.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.globant.david.msglobantproducts.infrastructure.changefeed;
+
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+
+import java.util.List;
+
+/**
+ * A single change published by the catalog owner.
+ * <p>
+ * {@code product} is only meaningful for {@link Type#PRODUCT_UPDATED} and {@code similarIds}
+ * for {@link Type#SIMILARITY_CHANGED}; when absent the affected entries are evicted instead
+ * of being updated in place.
+ */
+public record ProductChangeEvent(
+        Type type,
+        String productId,
+        ProductDetail product,
+        List<String> similarIds
+) {
+    public enum Type {
+        PRODUCT_UPDATED,
+        PRODUCT_DELETED,
+        SIMILARITY_CHANGED
+    }
+}
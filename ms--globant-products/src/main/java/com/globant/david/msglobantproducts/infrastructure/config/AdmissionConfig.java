@@ -0,0 +1,35 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.globant.david.msglobantproducts.application.AdmissionLane;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionLane missLane(
+            @Value("${admission.miss-lane.max-concurrent:64}") int maxConcurrent,
+            @Value("${admission.miss-lane.max-queued:256}") int maxQueued,
+            @Value("${admission.miss-lane.max-queue-wait:2s}") Duration maxQueueWait) {
+        return new AdmissionLane("miss", maxConcurrent, maxQueued, maxQueueWait);
+    }
+
+    @Bean
+    public MeterBinder missLaneMetrics(AdmissionLane missLane) {
+        return registry -> {
+            Gauge.builder("admission.lane.active", missLane, AdmissionLane::active)
+                    .tag("lane", missLane.name()).register(registry);
+            Gauge.builder("admission.lane.queued", missLane, AdmissionLane::queued)
+                    .tag("lane", missLane.name()).register(registry);
+            FunctionCounter.builder("admission.lane.rejected", missLane, AdmissionLane::rejectedCount)
+                    .tag("lane", missLane.name()).register(registry);
+        };
+    }
+}
@@ -2,44 +2,148 @@ package com.globant.david.msglobantproducts.infrastructure.config;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.infrastructure.cache.OffHeapProductDetailStore;
+import com.globant.david.msglobantproducts.infrastructure.cache.TieredProductDetailCache;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ValidatedProductResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class CacheConfig {
 
     @Bean
     @Profile("!integration")
-    public Cache<String, ProductDetail> productDetailCache() {
+    public Cache<String, ProductDetail> productDetailCache(
+            @Value("${cache.product-detail.maximum-size:1000}") long maximumSize,
+            @Value("${cache.product-detail.ttl:10m}") Duration ttl,
+            ObjectProvider<OffHeapProductDetailStore> offHeapStore) {
+        // Variable expiration so entries promoted from the off-heap tier or restored from a
+        // snapshot keep their remaining TTL
+        Cache<String, ProductDetail> onHeap = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<String, ProductDetail>writing((key, value) -> ttl))
+                .recordStats()
+                .build();
+        OffHeapProductDetailStore store = offHeapStore.getIfAvailable();
+        return store != null ? new TieredProductDetailCache(onHeap, store) : onHeap;
+    }
+
+    // Availability changes far more often than name or price, so it is cached on its own
+    // with a short TTL and merged into the cached ProductDetail on read. Its TTL drives how
+    // often cached products are fetched again from the upstream
+    @Bean
+    @Profile("!integration")
+    public Cache<String, Boolean> availabilityCache(
+            @Value("${cache.availability.maximum-size:1000}") long maximumSize,
+            @Value("${cache.availability.ttl:1m}") Duration ttl) {
         return Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(Duration.ofMinutes(10))
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<String, Boolean>writing((key, value) -> ttl))
+                .recordStats()
                 .build();
     }
 
     @Bean
     @Profile("!integration")
-    public Cache<String, List<ProductDetail>> similarProductsCache() {
+    @ConditionalOnProperty(name = "cache.product-detail.off-heap.enabled", havingValue = "true")
+    public OffHeapProductDetailStore offHeapProductDetailStore(
+            @Value("${cache.product-detail.off-heap.mode:direct}") String mode,
+            @Value("${cache.product-detail.off-heap.capacity:64MB}") DataSize capacity,
+            @Value("${cache.product-detail.off-heap.slot-size:256}") int slotSize,
+            @Value("${cache.product-detail.off-heap.segments:16}") int segments,
+            @Value("${cache.product-detail.ttl:10m}") Duration ttl,
+            @Value("${cache.product-detail.off-heap.mapped-file:${java.io.tmpdir}/ms-globant-products-offheap.bin}") Path mappedFile) {
+        return new OffHeapProductDetailStore(
+                OffHeapProductDetailStore.Mode.valueOf(mode.toUpperCase()),
+                capacity.toBytes(), slotSize, segments, ttl, mappedFile);
+    }
+
+    @Bean
+    @Profile("!integration")
+    @ConditionalOnProperty(name = "cache.product-detail.off-heap.enabled", havingValue = "true")
+    public MeterBinder offHeapProductDetailStoreMetrics(OffHeapProductDetailStore store) {
+        return registry -> {
+            Gauge.builder("cache.offheap.used", store, OffHeapProductDetailStore::usedBytes)
+                    .baseUnit("bytes").tag("cache", "productDetailCache").register(registry);
+            Gauge.builder("cache.offheap.capacity", store, OffHeapProductDetailStore::capacityBytes)
+                    .baseUnit("bytes").tag("cache", "productDetailCache").register(registry);
+            Gauge.builder("cache.offheap.size", store, OffHeapProductDetailStore::size)
+                    .tag("cache", "productDetailCache").register(registry);
+            FunctionCounter.builder("cache.offheap.gets", store, OffHeapProductDetailStore::hitCount)
+                    .tags("cache", "productDetailCache", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.offheap.gets", store, OffHeapProductDetailStore::missCount)
+                    .tags("cache", "productDetailCache", "result", "miss").register(registry);
+            FunctionCounter.builder("cache.offheap.evictions", store, OffHeapProductDetailStore::evictionCount)
+                    .tag("cache", "productDetailCache").register(registry);
+            FunctionCounter.builder("cache.offheap.rejections", store, OffHeapProductDetailStore::rejectionCount)
+                    .tag("cache", "productDetailCache").register(registry);
+        };
+    }
+
+    @Bean
+    @Profile("!integration")
+    public Cache<String, ComposedSimilarProducts> similarProductsCache(
+            @Value("${cache.similar-products.maximum-size:500}") long maximumSize,
+            @Value("${cache.similar-products.ttl:30s}") Duration ttl) {
+        // Composed responses embed availability, so this TTL should not exceed cache.availability.ttl
         return Caffeine.newBuilder()
-                .maximumSize(500)
-                .expireAfterWrite(Duration.ofMinutes(5))
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<String, ComposedSimilarProducts>writing((key, value) -> ttl))
+                .recordStats()
                 .build();
     }
 
     @Bean
     @Profile("!integration")
-    public Cache<String, List<String>> similarIdsCache() {
+    public Cache<String, List<String>> similarIdsCache(
+            @Value("${cache.similar-ids.maximum-size:500}") long maximumSize,
+            @Value("${cache.similar-ids.ttl:5m}") Duration ttl) {
         return Caffeine.newBuilder()
-                .maximumSize(500)
-                .expireAfterWrite(Duration.ofMinutes(5))
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<String, List<String>>writing((key, value) -> ttl))
+                .recordStats()
                 .build();
     }
 
+    // Last upstream response and validators per product, kept longer than the product caches
+    // so expired entries can be revalidated with a conditional request
+    @Bean
+    @Profile("!integration")
+    public Cache<String, ValidatedProductResponse> productValidatorCache(
+            @Value("${cache.product-validators.maximum-size:10000}") long maximumSize,
+            @Value("${cache.product-validators.ttl:24h}") Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // The caches are plain Caffeine beans rather than Spring caches, so Boot does not bind them;
+    // each is registered with its bean name as the "cache" tag
+    @Bean
+    @Profile("!integration")
+    public MeterBinder caffeineCacheMetrics(Map<String, Cache<String, ?>> caches) {
+        return registry -> caches.forEach((name, cache) -> CaffeineCacheMetrics.monitor(registry, cache, name));
+    }
+
     // No-op cache beans for integration tests
     @Bean
     @Profile("integration")
@@ -49,7 +153,13 @@ public class CacheConfig {
 
     @Bean
     @Profile("integration")
-    public Cache<String, List<ProductDetail>> similarProductsCacheNoOp() {
+    public Cache<String, Boolean> availabilityCacheNoOp() {
+        return Caffeine.newBuilder().maximumSize(0).build();
+    }
+
+    @Bean
+    @Profile("integration")
+    public Cache<String, ComposedSimilarProducts> similarProductsCacheNoOp() {
         return Caffeine.newBuilder().maximumSize(0).build();
     }
 
@@ -58,4 +168,10 @@ public class CacheConfig {
     public Cache<String, List<String>> similarIdsCacheNoOp() {
         return Caffeine.newBuilder().maximumSize(0).build();
     }
+
+    @Bean
+    @Profile("integration")
+    public Cache<String, ValidatedProductResponse> productValidatorCacheNoOp() {
+        return Caffeine.newBuilder().maximumSize(0).build();
+    }
 }
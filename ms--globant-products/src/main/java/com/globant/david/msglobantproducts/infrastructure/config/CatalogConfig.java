@@ -0,0 +1,56 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.output.WebClientProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.output.catalog.CatalogCompiler;
+import com.globant.david.msglobantproducts.infrastructure.output.catalog.CatalogFallbackProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.output.catalog.MappedCatalogProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+
+/**
+ * Offline catalog wiring, selected with {@code catalog.mode}:
+ * <ul>
+ *   <li>{@code offline} - the mapped catalog replaces the upstream-backed repository
+ *       (set by the {@code offline} profile)</li>
+ *   <li>{@code fallback} - the mapped catalog answers only when the upstream path yields nothing</li>
+ * </ul>
+ */
+@Configuration
+public class CatalogConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "catalog.mode", havingValue = "offline")
+    public MappedCatalogProductRepository offlineCatalogProductRepository(
+            JsonMapper jsonMapper,
+            @Value("${catalog.dump-file}") Path dumpFile,
+            @Value("${catalog.watch:true}") boolean watch) {
+        return new MappedCatalogProductRepository(new CatalogCompiler(jsonMapper), dumpFile, watch);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "catalog.mode", havingValue = "fallback")
+    public MappedCatalogProductRepository fallbackCatalogProductRepository(
+            JsonMapper jsonMapper,
+            @Value("${catalog.dump-file}") Path dumpFile,
+            @Value("${catalog.watch:true}") boolean watch) {
+        return new MappedCatalogProductRepository(new CatalogCompiler(jsonMapper), dumpFile, watch);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "catalog.mode", havingValue = "fallback")
+    public ProductRepository catalogFallbackProductRepository(
+            WebClientProductRepository upstream,
+            MappedCatalogProductRepository fallbackCatalogProductRepository,
+            @Value("${webclient.flatmap-concurrency}") int flatmapConcurrency) {
+        return new CatalogFallbackProductRepository(upstream, fallbackCatalogProductRepository, flatmapConcurrency);
+    }
+}
@@ -0,0 +1,49 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.infrastructure.changefeed.ChangeFeedIngester;
+import com.globant.david.msglobantproducts.infrastructure.changefeed.ChangeFeedSource;
+import com.globant.david.msglobantproducts.infrastructure.changefeed.JsonlFileChangeFeedSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "cache.change-feed.enabled", havingValue = "true")
+public class ChangeFeedConfig {
+
+    // Selected with cache.change-feed.source; another source, e.g. a message broker consumer,
+    // registers its bean under its own value
+    @Bean
+    @ConditionalOnProperty(name = "cache.change-feed.source", havingValue = "file", matchIfMissing = true)
+    public ChangeFeedSource jsonlFileChangeFeedSource(
+            JsonMapper jsonMapper,
+            @Value("${cache.change-feed.file:change-feed.jsonl}") Path file,
+            @Value("${cache.change-feed.from-beginning:false}") boolean fromBeginning,
+            @Value("${cache.change-feed.poll-interval:1s}") Duration pollInterval) {
+        return new JsonlFileChangeFeedSource(file, jsonMapper, fromBeginning, pollInterval);
+    }
+
+    @Bean
+    public ChangeFeedIngester changeFeedIngester(
+            ChangeFeedSource changeFeedSource,
+            Cache<String, ProductDetail> productDetailCache,
+            Cache<String, Boolean> availabilityCache,
+            Cache<String, List<String>> similarIdsCache,
+            Cache<String, ComposedSimilarProducts> similarProductsCache,
+            @Value("${cache.change-feed.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${cache.change-feed.max-retry-backoff:1m}") Duration maxRetryBackoff,
+            MeterRegistry meterRegistry) {
+        return new ChangeFeedIngester(changeFeedSource, productDetailCache, availabilityCache, similarIdsCache,
+                similarProductsCache, retryBackoff, maxRetryBackoff, meterRegistry);
+    }
+}
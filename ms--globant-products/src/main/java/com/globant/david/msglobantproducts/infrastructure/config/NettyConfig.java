@@ -0,0 +1,98 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.globant.david.msglobantproducts.infrastructure.input.NettyServerTuning;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.AdaptiveByteBufAllocator;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+
+/**
+ * Event loops and transport of the Netty server and of the upstream {@code WebClient}.
+ * <p>
+ * Serving and upstream calls run on separate, separately sized {@link LoopResources}, so a
+ * burst of slow upstream I/O cannot delay accepting and answering clients. With
+ * {@code netty.native} the loops use the best native transport available: io_uring when the
+ * build includes it ({@code -PioUring}) and the kernel supports it, then epoll, then NIO.
+ */
+@Configuration
+public class NettyConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(NettyConfig.class);
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public LoopResources serverLoopResources(
+            @Value("${netty.server.select-count:1}") int selectCount,
+            @Value("${netty.server.worker-count:0}") int workerCount,
+            @Value("${netty.native:true}") boolean preferNative) {
+        logTransport(preferNative);
+        return LoopResources.create("server", selectCount, workers(workerCount), true);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources clientLoopResources(@Value("${netty.client.worker-count:0}") int workerCount) {
+        return LoopResources.create("upstream", workers(workerCount), true);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public NettyServerTuning nettyServerTuning(
+            LoopResources serverLoopResources,
+            @Value("${netty.native:true}") boolean preferNative,
+            @Value("${netty.allocator:default}") String allocator,
+            @Value("${netty.server.max-connections:10000}") int maxConnections,
+            @Value("${netty.server.idle-timeout:60s}") Duration idleTimeout,
+            @Value("${netty.server.max-keep-alive-requests:-1}") int maxKeepAliveRequests,
+            @Value("${netty.server.backlog:1024}") int backlog,
+            @Value("${netty.server.http2.max-concurrent-streams:250}") long maxConcurrentStreams,
+            @Value("${netty.server.http2.initial-window-size:1MB}") DataSize initialWindowSize,
+            @Value("${netty.server.http2.max-frame-size:16KB}") DataSize maxFrameSize,
+            @Value("${netty.server.http2.max-header-list-size:8KB}") DataSize maxHeaderListSize,
+            MeterRegistry meterRegistry) {
+        NettyServerTuning.Http2Limits http2Limits = new NettyServerTuning.Http2Limits(maxConcurrentStreams,
+                Math.toIntExact(initialWindowSize.toBytes()), Math.toIntExact(maxFrameSize.toBytes()),
+                maxHeaderListSize.toBytes());
+        return new NettyServerTuning(serverLoopResources, preferNative, allocator(allocator),
+                maxConnections, idleTimeout, maxKeepAliveRequests, backlog, http2Limits, meterRegistry);
+    }
+
+    /**
+     * {@code default} keeps Netty's own choice; pooled arena sizes are tuned with the usual
+     * {@code -Dio.netty.allocator.*} system properties.
+     */
+    static ByteBufAllocator allocator(String type) {
+        return switch (type) {
+            case "default" -> null;
+            case "pooled" -> PooledByteBufAllocator.DEFAULT;
+            case "adaptive" -> new AdaptiveByteBufAllocator();
+            case "unpooled" -> UnpooledByteBufAllocator.DEFAULT;
+            default -> throw new IllegalArgumentException("Unknown netty.allocator: " + type);
+        };
+    }
+
+    private static int workers(int configured) {
+        return configured > 0 ? configured : LoopResources.DEFAULT_IO_WORKER_COUNT;
+    }
+
+    private static void logTransport(boolean preferNative) {
+        if (!preferNative) {
+            log.info("Netty transport: NIO (netty.native=false)");
+        } else if (LoopResources.hasNativeSupport()) {
+            log.info("Netty transport: native (epoll available: {})", Epoll.isAvailable());
+        } else {
+            log.info("Netty transport: NIO (no native transport available)");
+        }
+    }
+}
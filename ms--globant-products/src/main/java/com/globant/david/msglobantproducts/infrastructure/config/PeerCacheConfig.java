@@ -0,0 +1,34 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.globant.david.msglobantproducts.infrastructure.output.ProductDetailPeers;
+import com.globant.david.msglobantproducts.infrastructure.peer.ConsistentHashProductDetailPeers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class PeerCacheConfig {
+
+    @Bean
+    public ProductDetailPeers productDetailPeers(
+            @Value("${cache.peers.enabled:false}") boolean enabled,
+            @Value("${cache.peers.self:http://localhost:${server.port:5000}}") String self,
+            @Value("${cache.peers.urls:}") List<String> peers,
+            @Value("${cache.peers.virtual-nodes:100}") int virtualNodes,
+            @Value("${cache.peers.timeout:500ms}") Duration timeout,
+            @Value("${cache.peers.hot-threshold:3}") int hotThreshold,
+            @Value("${cache.peers.hot-window:1m}") Duration hotWindow,
+            WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return ProductDetailPeers.NONE;
+        }
+        return new ConsistentHashProductDetailPeers(webClientBuilder, self, peers, virtualNodes, timeout,
+                hotThreshold, hotWindow, meterRegistry);
+    }
+}
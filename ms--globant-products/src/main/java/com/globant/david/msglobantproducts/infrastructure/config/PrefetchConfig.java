@@ -0,0 +1,30 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.globant.david.msglobantproducts.application.SimilarProductsPrefetcher;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.output.ResilientProductWebClient;
+import com.globant.david.msglobantproducts.infrastructure.prefetch.BackgroundSimilarProductsPrefetcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PrefetchConfig {
+
+    @Bean
+    public SimilarProductsPrefetcher similarProductsPrefetcher(
+            @Value("${cache.prefetch.enabled:true}") boolean enabled,
+            @Value("${cache.prefetch.max-in-flight:4}") int maxInFlight,
+            @Value("${cache.prefetch.max-neighbours:3}") int maxNeighbours,
+            @Value("${cache.prefetch.pressure-threshold:100}") int pressureThreshold,
+            ProductRepository productRepository,
+            ResilientProductWebClient productWebClient,
+            MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return SimilarProductsPrefetcher.NONE;
+        }
+        return new BackgroundSimilarProductsPrefetcher(
+                productRepository, productWebClient, meterRegistry, maxInFlight, maxNeighbours, pressureThreshold);
+    }
+}
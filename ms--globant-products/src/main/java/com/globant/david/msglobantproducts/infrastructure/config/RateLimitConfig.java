@@ -0,0 +1,44 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.globant.david.msglobantproducts.infrastructure.input.RateLimitingFilter;
+import com.globant.david.msglobantproducts.infrastructure.ratelimit.RateLimitProperties;
+import com.globant.david.msglobantproducts.infrastructure.ratelimit.TokenBucketTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public TokenBucketTable rateLimitBuckets(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        TokenBucketTable table = new TokenBucketTable(
+                properties.stripes(), properties.maxKeys(), properties.idleTimeout());
+        Gauge.builder("rate.limit.keys", table, TokenBucketTable::size).register(meterRegistry);
+        return table;
+    }
+
+    /**
+     * Drops buckets of clients idle for {@code idle-timeout}, checked every {@code idle-timeout}.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Disposable rateLimitBucketEviction(RateLimitProperties properties, TokenBucketTable rateLimitBuckets) {
+        Duration period = properties.idleTimeout();
+        return Flux.interval(period, period).subscribe(__ -> rateLimitBuckets.evictIdle());
+    }
+
+    @Bean
+    public RateLimitingFilter rateLimitingFilter(
+            RateLimitProperties properties, TokenBucketTable rateLimitBuckets, MeterRegistry meterRegistry) {
+        return new RateLimitingFilter(properties, rateLimitBuckets, meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.globant.david.msglobantproducts.infrastructure.config;
+
+import com.globant.david.msglobantproducts.infrastructure.output.UpstreamEndpoints;
+import com.globant.david.msglobantproducts.infrastructure.output.WebClientProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.warmup.JitWarmupRunner;
+import com.globant.david.msglobantproducts.infrastructure.warmup.UpstreamWarmupRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Startup warm-up, run before the readiness probe reports {@code UP}.
+ */
+@Configuration
+public class WarmupConfig {
+
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(name = "warmup.upstream.enabled", havingValue = "true")
+    public UpstreamWarmupRunner upstreamWarmupRunner(
+            WebClient.Builder webClientBuilder,
+            UpstreamEndpoints upstreamEndpoints,
+            WebClientProductRepository productRepository,
+            @Value("${warmup.upstream.connections:16}") int connections,
+            @Value("${warmup.upstream.hot-keys:}") List<String> hotKeys,
+            @Value("${warmup.upstream.timeout:30s}") Duration timeout) {
+        return new UpstreamWarmupRunner(webClientBuilder, upstreamEndpoints.baseUrls(), productRepository, connections, hotKeys, timeout);
+    }
+
+    @Bean
+    @Order(2)
+    @ConditionalOnProperty(name = "warmup.jit.enabled", havingValue = "true")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public JitWarmupRunner jitWarmupRunner(
+            WebClient.Builder webClientBuilder,
+            JsonMapper jsonMapper,
+            @Value("${server.compression.enabled:false}") boolean compressionEnabled,
+            @Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize,
+            @Value("${warmup.jit.iterations:10000}") int iterations,
+            @Value("${warmup.jit.concurrency:16}") int concurrency,
+            @Value("${warmup.jit.timeout:60s}") Duration timeout) {
+        return new JitWarmupRunner(webClientBuilder, jsonMapper, compressionEnabled, minResponseSize,
+                iterations, concurrency, timeout);
+    }
+}
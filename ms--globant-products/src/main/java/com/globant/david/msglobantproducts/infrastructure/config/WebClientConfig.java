@@ -1,14 +1,77 @@
 package com.globant.david.msglobantproducts.infrastructure.config;
 
+import com.globant.david.msglobantproducts.infrastructure.jfr.UpstreamCallEvent;
+import com.globant.david.msglobantproducts.infrastructure.output.UpstreamEndpoints;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class WebClientConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(
+            @Value("${webclient.connection-provider.max-connections:500}") int maxConnections,
+            @Value("${webclient.connection-provider.max-idle-time:20s}") Duration maxIdleTime,
+            @Value("${webclient.connection-provider.max-life-time:60s}") Duration maxLifeTime,
+            @Value("${webclient.connection-provider.eviction-interval:120s}") Duration evictionInterval) {
+        return ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Upstream timeouts ({@code webclient.http-client.*}) are left at the Reactor Netty defaults:
+     * the slowest upstream products answer after several seconds and must still be served and cached.
+     */
+    @Bean
+    public WebClient.Builder webClientBuilder(
+            ConnectionProvider upstreamConnectionProvider,
+            LoopResources clientLoopResources,
+            @Value("${netty.native:true}") boolean preferNative,
+            @Value("${netty.allocator:default}") String allocator) {
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .runOn(clientLoopResources, preferNative)
+                .option(ChannelOption.TCP_NODELAY, true);
+        ByteBufAllocator byteBufAllocator = NettyConfig.allocator(allocator);
+        if (byteBufAllocator != null) {
+            httpClient = httpClient.option(ChannelOption.ALLOCATOR, byteBufAllocator);
+        }
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(UpstreamCallEvent.recordAttempts());
+    }
+
+    /**
+     * {@code external-api.base-urls} lists the upstream nodes; without it calls go to
+     * {@code external-api.base-url}.
+     */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public UpstreamEndpoints upstreamEndpoints(
+            WebClient.Builder webClientBuilder,
+            @Value("${external-api.base-urls:${external-api.base-url}}") List<String> baseUrls,
+            @Value("${external-api.outlier-ejection.consecutive-failures:5}") int consecutiveFailures,
+            @Value("${external-api.outlier-ejection.latency-factor:3.0}") double latencyFactor,
+            @Value("${external-api.outlier-ejection.min-requests:20}") int minRequests,
+            @Value("${external-api.outlier-ejection.base-ejection-time:30s}") Duration baseEjectionTime,
+            @Value("${external-api.outlier-ejection.max-ejection-percent:50}") int maxEjectionPercent,
+            MeterRegistry meterRegistry) {
+        return new UpstreamEndpoints(webClientBuilder, baseUrls, new UpstreamEndpoints.OutlierEjection(
+                consecutiveFailures, latencyFactor, minRequests, baseEjectionTime, maxEjectionPercent), meterRegistry);
     }
 }
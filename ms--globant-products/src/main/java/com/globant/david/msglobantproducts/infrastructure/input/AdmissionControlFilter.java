@@ -0,0 +1,115 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.application.AdmissionLane;
+import com.globant.david.msglobantproducts.application.GetSimilarProductsUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds {@code /similar} load before it reaches the controller.
+ * <p>
+ * Past {@code admission.max-in-flight} concurrent requests everything is rejected. Before that,
+ * once in-flight requests pass {@code admission.shed-misses-above} or the oldest request waiting
+ * in the miss lane has queued longer than {@code admission.max-queue-delay}, only requests that
+ * cannot be answered from cache are rejected, since they are the ones that would wait on the
+ * upstream. Rejections answer {@code 503} with {@code Retry-After}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final PathPattern SIMILAR_PRODUCTS = PathPatternParser.defaultInstance.parse("/product/{productId}/similar");
+
+    private final GetSimilarProductsUseCase getSimilarProductsUseCase;
+    private final AdmissionLane missLane;
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final int shedMissesAbove;
+    private final Duration maxQueueDelay;
+    private final String retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter shedOverload;
+    private final Counter shedMiss;
+
+    public AdmissionControlFilter(
+            GetSimilarProductsUseCase getSimilarProductsUseCase,
+            AdmissionLane missLane,
+            MeterRegistry meterRegistry,
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.max-in-flight:1000}") int maxInFlight,
+            @Value("${admission.shed-misses-above:200}") int shedMissesAbove,
+            @Value("${admission.max-queue-delay:500ms}") Duration maxQueueDelay,
+            @Value("${admission.retry-after:1s}") Duration retryAfter) {
+        this.getSimilarProductsUseCase = getSimilarProductsUseCase;
+        this.missLane = missLane;
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+        this.shedMissesAbove = shedMissesAbove;
+        this.maxQueueDelay = maxQueueDelay;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.shedOverload = Counter.builder("admission.shed").tag("reason", "overload").register(meterRegistry);
+        this.shedMiss = Counter.builder("admission.shed").tag("reason", "miss").register(meterRegistry);
+        Gauge.builder("admission.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        PathPattern.PathMatchInfo match = SIMILAR_PRODUCTS.matchAndExtract(
+                PathContainer.parsePath(exchange.getRequest().getPath().pathWithinApplication().value()));
+        if (match == null) {
+            return chain.filter(exchange);
+        }
+
+        int current = inFlight.incrementAndGet();
+        if (current > maxInFlight) {
+            inFlight.decrementAndGet();
+            shedOverload.increment();
+            return reject(exchange);
+        }
+        if (underPressure(current) && !getSimilarProductsUseCase.isFullyCached(match.getUriVariables().get("productId"))) {
+            inFlight.decrementAndGet();
+            shedMiss.increment();
+            return reject(exchange);
+        }
+        // Deferred so that a chain throwing before it returns a Mono still releases the slot
+        return Mono.defer(() -> chain.filter(exchange)).doFinally(__ -> inFlight.decrementAndGet());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private boolean underPressure(int current) {
+        return current > shedMissesAbove || missLane.oldestQueueWait().compareTo(maxQueueDelay) > 0;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        log.debug("Shedding {} ({} in flight)", exchange.getRequest().getPath(), inFlight.get());
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        return exchange.getResponse().setComplete();
+    }
+}
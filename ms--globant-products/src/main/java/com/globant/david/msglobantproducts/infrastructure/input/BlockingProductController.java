@@ -0,0 +1,58 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.application.DegradedResponse;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.infrastructure.output.RestClientProductRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Spring MVC version of {@link ProductController} for the {@code blocking} profile, where each
+ * request runs on its own virtual thread. Responses are identical to the reactive stack's.
+ */
+@RestController
+@RequestMapping("/product")
+@Profile("blocking")
+public class BlockingProductController {
+
+    private final RestClientProductRepository productRepository;
+    private final Cache<String, ComposedSimilarProducts> similarProductsCache;
+    private final SimilarProductsResponseComposer responseComposer;
+
+    public BlockingProductController(
+            RestClientProductRepository productRepository,
+            Cache<String, ComposedSimilarProducts> similarProductsCache,
+            SimilarProductsResponseComposer responseComposer) {
+        this.productRepository = productRepository;
+        this.similarProductsCache = similarProductsCache;
+        this.responseComposer = responseComposer;
+    }
+
+    @GetMapping("/{productId}/similar")
+    public ResponseEntity<byte[]> getSimilarProducts(
+            @PathVariable String productId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) List<String> acceptEncoding) {
+        ComposedSimilarProducts composed = similarProductsCache.getIfPresent(productId);
+        if (composed == null) {
+            DegradedResponse degraded = new DegradedResponse();
+            List<String> similarIds = productRepository.findSimilarIds(productId, degraded);
+            List<ProductDetail> products = productRepository.findProductDetails(similarIds, degraded);
+            composed = responseComposer.compose(products, null, degraded.isDegraded());
+            if (!composed.degraded()) {
+                similarProductsCache.put(productId, composed);
+            }
+        }
+        return responseComposer.toResponse(productId, composed, ifNoneMatch, acceptEncoding);
+    }
+}
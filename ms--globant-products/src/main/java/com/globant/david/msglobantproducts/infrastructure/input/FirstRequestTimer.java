@@ -0,0 +1,52 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures time to first request: the JVM uptime when the first response completes, next to
+ * Boot's {@code application.started.time} and {@code application.ready.time}. Reported once
+ * in the log and as {@code application.first-request.time}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestTimer implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+    private final AtomicBoolean measured = new AtomicBoolean();
+    private volatile double firstRequestMillis = Double.NaN;
+
+    public FirstRequestTimer(MeterRegistry meterRegistry) {
+        TimeGauge.builder("application.first-request.time", this, TimeUnit.MILLISECONDS, timer -> timer.firstRequestMillis)
+                .description("Time from JVM start until the first response completed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (measured.get()) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).doFinally(__ -> {
+            if (measured.compareAndSet(false, true)) {
+                firstRequestMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+                log.info("First request {} served {} ms after JVM start",
+                        exchange.getRequest().getPath(), (long) firstRequestMillis);
+            }
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.infrastructure.jfr.CacheLookupEvent;
+import com.globant.david.msglobantproducts.infrastructure.jfr.UpstreamCallEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Actuator endpoint to capture Flight Recorder recordings with the application events
+ * ({@link UpstreamCallEvent}, {@link CacheLookupEvent}) on a running instance:
+ * <ul>
+ *   <li>{@code GET /actuator/flightrecordings} - every recording in the JVM</li>
+ *   <li>{@code POST /actuator/flightrecordings} with {@code {"settings":"default|profile","duration":"60s","cacheLookups":true}} - start a recording</li>
+ *   <li>{@code POST /actuator/flightrecordings/{id}} - stop a recording</li>
+ *   <li>{@code GET /actuator/flightrecordings/{id}} - download a recording as a {@code .jfr} file</li>
+ *   <li>{@code DELETE /actuator/flightrecordings/{id}} - close a recording and discard its data</li>
+ * </ul>
+ * Recordings are kept until closed, also after they stop or their duration elapses. Every
+ * recording is bounded: its duration defaults to and may not exceed
+ * {@code flight-recordings.max-duration}, and the disk buffer is trimmed to
+ * {@code flight-recordings.max-size} and {@code flight-recordings.max-age}. The JVM's
+ * environment variables, system properties and command line are never recorded, since
+ * downloads leave the host. Only exposed on the management port of the {@code ops} profile.
+ */
+@Component
+@Endpoint(id = "flightrecordings")
+public class FlightRecordingsEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordingsEndpoint.class);
+
+    private static final List<String> HOST_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.InitialSecurityProperty",
+            "jdk.JVMInformation");
+
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final Duration maxAge;
+
+    public FlightRecordingsEndpoint(
+            @Value("${flight-recordings.max-duration:5m}") Duration maxDuration,
+            @Value("${flight-recordings.max-size:100MB}") DataSize maxSize,
+            @Value("${flight-recordings.max-age:10m}") Duration maxAge) {
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+    @ReadOperation
+    public List<RecordingReport> recordings() {
+        if (!FlightRecorder.isAvailable()) {
+            return List.of();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(RecordingReport::of)
+                .toList();
+    }
+
+    /**
+     * Starts a recording with a JDK settings file plus upstream calls of any duration;
+     * cache lookups, one per cache read, only when {@code cacheLookups} is set. Without a
+     * duration the recording stops after {@code max-duration}; longer ones are rejected.
+     */
+    @WriteOperation
+    public @Nullable RecordingReport start(@Nullable String settings, @Nullable Duration duration,
+                                           @Nullable Boolean cacheLookups) {
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight Recorder is not available in this JVM");
+            return null;
+        }
+        Duration recordingDuration = duration != null ? duration : maxDuration;
+        if (recordingDuration.isNegative() || recordingDuration.isZero() || recordingDuration.compareTo(maxDuration) > 0) {
+            throw new InvalidEndpointRequestException("Duration must be positive and at most " + maxDuration,
+                    "Invalid duration " + recordingDuration);
+        }
+        Map<String, String> eventSettings = new HashMap<>(configuration(settings != null ? settings : "default"));
+        eventSettings.put(UpstreamCallEvent.NAME + "#enabled", "true");
+        eventSettings.put(UpstreamCallEvent.NAME + "#threshold", "0 ms");
+        if (Boolean.TRUE.equals(cacheLookups)) {
+            eventSettings.put(CacheLookupEvent.NAME + "#enabled", "true");
+            eventSettings.put(CacheLookupEvent.NAME + "#threshold", "0 ms");
+        }
+        HOST_EVENTS.forEach(event -> eventSettings.put(event + "#enabled", "false"));
+        Recording recording = new Recording(eventSettings);
+        recording.setName("ms-globant-products");
+        recording.setToDisk(true);
+        recording.setDuration(recordingDuration);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.setMaxAge(maxAge);
+        recording.start();
+        log.info("Started flight recording {} (settings={}, duration={}, cacheLookups={})",
+                recording.getId(), settings, recordingDuration, cacheLookups);
+        return RecordingReport.of(recording);
+    }
+
+    @WriteOperation
+    public @Nullable RecordingReport stop(@Selector long id) {
+        return find(id).map(recording -> {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+                log.info("Stopped flight recording {}", id);
+            }
+            return RecordingReport.of(recording);
+        }).orElse(null);
+    }
+
+    /**
+     * A running recording is downloaded up to now, through a stopped copy closed with the stream.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        return find(id)
+                .map(FlightRecordingsEndpoint::stream)
+                .map(stream -> new WebEndpointResponse<Resource>(new InputStreamResource(stream)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @DeleteOperation
+    public @Nullable RecordingReport close(@Selector long id) {
+        return find(id).map(recording -> {
+            RecordingReport report = RecordingReport.of(recording);
+            recording.close();
+            log.info("Closed flight recording {}", id);
+            return report;
+        }).orElse(null);
+    }
+
+    private static Optional<Recording> find(long id) {
+        if (!FlightRecorder.isAvailable()) {
+            return Optional.empty();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getId() == id)
+                .findFirst();
+    }
+
+    private static @Nullable InputStream stream(Recording recording) {
+        try {
+            if (recording.getState() != RecordingState.RUNNING) {
+                return recording.getStream(null, null);
+            }
+            Recording copy = recording.copy(true);
+            InputStream stream = copy.getStream(null, null);
+            if (stream == null) {
+                copy.close();
+                return null;
+            }
+            return new FilterInputStream(stream) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        copy.close();
+                    }
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, String> configuration(String name) {
+        try {
+            return Configuration.getConfiguration(name).getSettings();
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown Flight Recorder settings: " + name, e);
+        }
+    }
+
+    public record RecordingReport(
+            long id,
+            String name,
+            RecordingState state,
+            @Nullable Instant startTime,
+            @Nullable Instant stopTime,
+            @Nullable Duration duration,
+            long size) {
+
+        static RecordingReport of(Recording recording) {
+            return new RecordingReport(recording.getId(), recording.getName(), recording.getState(),
+                    recording.getStartTime(), recording.getStopTime(), recording.getDuration(), recording.getSize());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.reactor.netty.NettyServerCustomizer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the server on its own event loops and applies the socket and HTTP options from
+ * {@code netty.server.*}. Connections beyond {@code max-connections} are closed as soon as
+ * they are accepted, before any request is read.
+ * <p>
+ * The HTTP/2 settings take effect when h2c is enabled ({@code server.http2.enabled}), which
+ * serves prior-knowledge and {@code Upgrade: h2c} clients next to HTTP/1.1 on the same port.
+ */
+public class NettyServerTuning implements NettyServerCustomizer {
+
+    private final LoopResources loopResources;
+    private final boolean preferNative;
+    private final ByteBufAllocator allocator;
+    private final int maxConnections;
+    private final Duration idleTimeout;
+    private final int maxKeepAliveRequests;
+    private final int backlog;
+    private final Http2Limits http2Limits;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter rejected;
+
+    public NettyServerTuning(LoopResources loopResources, boolean preferNative, ByteBufAllocator allocator,
+                             int maxConnections, Duration idleTimeout, int maxKeepAliveRequests, int backlog,
+                             Http2Limits http2Limits, MeterRegistry meterRegistry) {
+        this.loopResources = loopResources;
+        this.preferNative = preferNative;
+        this.allocator = allocator;
+        this.maxConnections = maxConnections;
+        this.idleTimeout = idleTimeout;
+        this.maxKeepAliveRequests = maxKeepAliveRequests;
+        this.backlog = backlog;
+        this.http2Limits = http2Limits;
+        this.rejected = Counter.builder("netty.server.connections.rejected").register(meterRegistry);
+        Gauge.builder("netty.server.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    public HttpServer apply(HttpServer server) {
+        HttpServer tuned = server
+                .runOn(loopResources, preferNative)
+                .idleTimeout(idleTimeout)
+                .maxKeepAliveRequests(maxKeepAliveRequests)
+                .http2Settings(settings -> settings
+                        .maxConcurrentStreams(http2Limits.maxConcurrentStreams())
+                        .initialWindowSize(http2Limits.initialWindowSize())
+                        .maxFrameSize(http2Limits.maxFrameSize())
+                        .maxHeaderListSize(http2Limits.maxHeaderListSize()))
+                .option(ChannelOption.SO_BACKLOG, backlog)
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .doOnChannelInit((observer, channel, remoteAddress) -> admit(channel));
+        return allocator != null ? tuned.childOption(ChannelOption.ALLOCATOR, allocator) : tuned;
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    private void admit(Channel channel) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejected.increment();
+            channel.close();
+            return;
+        }
+        channel.closeFuture().addListener(__ -> connections.decrementAndGet());
+    }
+
+    /**
+     * @param maxConcurrentStreams streams a client may have open on one connection
+     * @param initialWindowSize    per-stream flow-control window, in bytes
+     */
+    public record Http2Limits(long maxConcurrentStreams, int initialWindowSize, int maxFrameSize,
+                              long maxHeaderListSize) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.application.DegradedResponse;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
+import com.globant.david.msglobantproducts.infrastructure.peer.ConsistentHashProductDetailPeers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Answers product lookups from peer instances, out of the caches of this instance or, for a
+ * miss, from the upstream. Never forwarded to another peer.
+ * <p>
+ * {@code 404} only when the upstream says the product does not exist; lookups degraded by an
+ * upstream failure answer {@code 503}, so the requesting peer falls back to the upstream itself.
+ */
+@RestController
+@RequestMapping("/internal/peers")
+@Profile("!blocking")
+@ConditionalOnProperty(name = "cache.peers.enabled", havingValue = "true")
+public class PeerCacheController {
+
+    private final ProductRepository productRepository;
+
+    public PeerCacheController(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @GetMapping("/products/{productId}")
+    public Mono<ResponseEntity<ProductResponse>> getProduct(@PathVariable String productId) {
+        DegradedResponse degraded = new DegradedResponse();
+        return productRepository.findProductDetail(productId)
+                .filter(detail -> detail.id() != null && !degraded.isDegraded())
+                .map(detail -> ResponseEntity.ok(
+                        new ProductResponse(detail.id(), detail.name(), detail.price(), detail.availability())))
+                .switchIfEmpty(Mono.fromSupplier(() -> degraded.isDegraded()
+                        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()
+                        : ResponseEntity.notFound().build()))
+                .contextWrite(Context.of(ConsistentHashProductDetailPeers.FORWARDED, true,
+                        DegradedResponse.CONTEXT_KEY, degraded));
+    }
+}
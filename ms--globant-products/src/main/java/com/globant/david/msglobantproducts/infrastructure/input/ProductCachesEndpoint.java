@@ -0,0 +1,139 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.cache.TieredProductDetailCache;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint to inspect and operate the product caches at runtime:
+ * <ul>
+ *   <li>{@code GET /actuator/productcaches} - stats of every cache</li>
+ *   <li>{@code GET /actuator/productcaches/{cache}} - stats of one cache</li>
+ *   <li>{@code GET /actuator/productcaches/{cache}/{key}} - a single cached value</li>
+ *   <li>{@code DELETE /actuator/productcaches/{cache}?key=|prefix=} - evict by key, by prefix, or everything</li>
+ *   <li>{@code POST /actuator/productcaches} with {@code {"ids":[...]}} - preload through the repository</li>
+ * </ul>
+ * It can evict and load, so it is not exposed by default: the {@code ops} profile exposes it
+ * on a management port bound to localhost.
+ */
+@Component
+@Endpoint(id = "productcaches")
+public class ProductCachesEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCachesEndpoint.class);
+
+    private final Map<String, Cache<String, ?>> caches;
+    private final ProductRepository productRepository;
+
+    public ProductCachesEndpoint(Map<String, Cache<String, ?>> caches, ProductRepository productRepository) {
+        this.caches = new TreeMap<>(caches);
+        this.productRepository = productRepository;
+    }
+
+    @ReadOperation
+    public Map<String, CacheReport> caches() {
+        Map<String, CacheReport> reports = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> reports.put(name, report(cache)));
+        return reports;
+    }
+
+    @ReadOperation
+    public @Nullable CacheReport cache(@Selector String cache) {
+        Cache<String, ?> target = caches.get(cache);
+        return target != null ? report(target) : null;
+    }
+
+    @ReadOperation
+    public @Nullable Object entry(@Selector String cache, @Selector String key) {
+        Cache<String, ?> target = caches.get(cache);
+        return target != null ? target.getIfPresent(key) : null;
+    }
+
+    @DeleteOperation
+    public @Nullable EvictionResult evict(@Selector String cache, @Nullable String key, @Nullable String prefix) {
+        Cache<String, ?> target = caches.get(cache);
+        if (target == null) {
+            return null;
+        }
+        long before = target.estimatedSize();
+        if (key != null) {
+            target.invalidate(key);
+        } else if (prefix != null) {
+            // asMap() also lists the off-heap tier of a TieredProductDetailCache
+            target.invalidateAll(target.asMap().keySet().stream().filter(k -> k.startsWith(prefix)).toList());
+        } else {
+            target.invalidateAll();
+        }
+        target.cleanUp();
+        long evicted = Math.max(0, before - target.estimatedSize());
+        log.info("Evicted {} entries from {} (key={}, prefix={})", evicted, cache, key, prefix);
+        return new EvictionResult(cache, evicted);
+    }
+
+    /**
+     * Loads the similar ids and the similar product details of each id through the
+     * repository, which populates the caches the same way a request would.
+     */
+    @WriteOperation
+    public Mono<PreloadResult> preload(List<String> ids) {
+        return Flux.fromIterable(ids)
+                .concatMap(id -> productRepository.findSimilarIds(id)
+                        .flatMapMany(productRepository::findProductDetails)
+                        .count())
+                .reduce(new PreloadResult(0, 0), (result, products) -> result.add(products))
+                .doOnNext(result -> log.info("Preloaded {} ids ({} product details)",
+                        result.ids(), result.productDetails()));
+    }
+
+    private static CacheReport report(Cache<String, ?> cache) {
+        CacheStats stats = cache.stats();
+        long size = cache.estimatedSize();
+        // Caches bounded by entry count have no weigher, so their weight is their size
+        long weight = cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(size))
+                .orElse(size);
+        Long offHeapBytes = cache instanceof TieredProductDetailCache tiered ? tiered.offHeapTier().usedBytes() : null;
+        return new CacheReport(size, weight, offHeapBytes, stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.loadSuccessCount(), stats.loadFailureCount(), stats.evictionCount(), stats.evictionWeight());
+    }
+
+    public record CacheReport(
+            long size,
+            long estimatedWeight,
+            @Nullable Long offHeapUsedBytes,
+            long hitCount,
+            long missCount,
+            double hitRate,
+            long loadSuccessCount,
+            long loadFailureCount,
+            long evictionCount,
+            long evictionWeight) {
+    }
+
+    public record EvictionResult(String cache, long evicted) {
+    }
+
+    public record PreloadResult(int ids, long productDetails) {
+
+        PreloadResult add(long products) {
+            return new PreloadResult(ids + 1, productDetails + products);
+        }
+    }
+}
@@ -1,25 +1,112 @@
 package com.globant.david.msglobantproducts.infrastructure.input;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.application.AdmissionRejectedException;
+import com.globant.david.msglobantproducts.application.DegradedResponse;
 import com.globant.david.msglobantproducts.application.GetSimilarProductsUseCase;
-import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.infrastructure.metrics.RequestTimings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
 
 @RestController
 @RequestMapping("/product")
+@Profile("!blocking")
 public class ProductController {
 
+    private static final String SERVER_TIMING = "Server-Timing";
+    private static final String SERVER_TIMING_REQUEST = "X-Server-Timing";
+
     private final GetSimilarProductsUseCase getSimilarProductsUseCase;
+    private final Cache<String, ComposedSimilarProducts> similarProductsCache;
+    private final SimilarProductsResponseComposer responseComposer;
+    private final boolean serverTimingEnabled;
+    private final String retryAfterSeconds;
 
-    public ProductController(GetSimilarProductsUseCase getSimilarProductsUseCase) {
+    public ProductController(
+            GetSimilarProductsUseCase getSimilarProductsUseCase,
+            Cache<String, ComposedSimilarProducts> similarProductsCache,
+            SimilarProductsResponseComposer responseComposer,
+            @Value("${server-timing.enabled:false}") boolean serverTimingEnabled,
+            @Value("${admission.retry-after:1s}") Duration retryAfter) {
         this.getSimilarProductsUseCase = getSimilarProductsUseCase;
+        this.similarProductsCache = similarProductsCache;
+        this.responseComposer = responseComposer;
+        this.serverTimingEnabled = serverTimingEnabled;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
     }
 
+    /**
+     * Serves the composed response from {@code similarProductsCache}, composing and caching it
+     * on a miss. Compositions degraded by upstream failures are served but not cached. See
+     * {@link SimilarProductsResponseComposer} for ETag, caching and encoding.
+     * <p>
+     * With {@code server-timing.enabled}, requests sending {@code X-Server-Timing: true} get a
+     * {@code Server-Timing} header breaking the response time down by stage.
+     */
     @GetMapping("/{productId}/similar")
-    public Flux<ProductDetail> getSimilarProducts(@PathVariable String productId) {
-        return getSimilarProductsUseCase.execute(productId);
+    public Mono<ResponseEntity<byte[]>> getSimilarProducts(
+            @PathVariable String productId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) List<String> acceptEncoding,
+            @RequestHeader(name = SERVER_TIMING_REQUEST, required = false) String serverTiming) {
+        RequestTimings timings = serverTimingEnabled && Boolean.parseBoolean(serverTiming)
+                ? new RequestTimings()
+                : null;
+        ComposedSimilarProducts cached = similarProductsCache.getIfPresent(productId);
+        DegradedResponse degraded = new DegradedResponse();
+        Mono<ComposedSimilarProducts> composed = cached != null
+                ? Mono.just(cached)
+                : getSimilarProductsUseCase.execute(productId)
+                        .collectList()
+                        .map(products -> responseComposer.compose(products, timings, degraded.isDegraded()))
+                        .doOnNext(result -> {
+                            if (!result.degraded()) {
+                                similarProductsCache.put(productId, result);
+                            }
+                        })
+                        .contextWrite(Context.of(DegradedResponse.CONTEXT_KEY, degraded));
+        Mono<ResponseEntity<byte[]>> response = composed
+                .map(result -> responseComposer.toResponse(productId, result, ifNoneMatch, acceptEncoding));
+        if (timings == null) {
+            return response;
+        }
+        return response
+                .map(entity -> withServerTiming(entity, timings, cached != null))
+                .contextWrite(Context.of(RequestTimings.CONTEXT_KEY, timings));
+    }
+
+    private static ResponseEntity<byte[]> withServerTiming(ResponseEntity<byte[]> entity, RequestTimings timings,
+                                                           boolean responseCached) {
+        String encoding = entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(entity.getHeaders());
+        headers.set(SERVER_TIMING, timings.toHeader(responseCached, encoding != null ? encoding : "identity"));
+        return new ResponseEntity<>(entity.getBody(), headers, entity.getStatusCode());
+    }
+
+    /**
+     * Requests rejected by the miss lane get the same {@code Retry-After} as those shed by
+     * {@link AdmissionControlFilter}.
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Void> handleAdmissionRejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .build();
     }
 }
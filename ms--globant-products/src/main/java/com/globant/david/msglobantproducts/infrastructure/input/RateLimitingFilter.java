@@ -0,0 +1,99 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.infrastructure.ratelimit.RateLimitProperties;
+import com.globant.david.msglobantproducts.infrastructure.ratelimit.TokenBucketTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies per-client token-bucket limits to {@code /product} requests, answering
+ * {@code 429} once a client runs out of tokens, with {@code Retry-After} set to the seconds its
+ * bucket needs to refill one token.
+ */
+public class RateLimitingFilter implements WebFilter, Ordered {
+
+    private static final String PRODUCT_PATH = "/product/";
+
+    private final RateLimitProperties properties;
+    private final TokenBucketTable buckets;
+    private final Map<String, ClassLimits> classesByClient = new HashMap<>();
+    private final ClassLimits defaultClass;
+
+    public RateLimitingFilter(RateLimitProperties properties, TokenBucketTable buckets, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = buckets;
+        RateLimitProperties.ClientClass defaults = properties.classes().getOrDefault(RateLimitProperties.DEFAULT_CLASS,
+                new RateLimitProperties.ClientClass(properties.defaultRate(), properties.defaultBurst(), null));
+        this.defaultClass = new ClassLimits(RateLimitProperties.DEFAULT_CLASS, defaults, meterRegistry);
+        properties.classes().forEach((name, clientClass) -> {
+            if (RateLimitProperties.DEFAULT_CLASS.equals(name)) {
+                return;
+            }
+            ClassLimits limits = new ClassLimits(name, clientClass, meterRegistry);
+            clientClass.clients().forEach(client -> classesByClient.put(client, limits));
+        });
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith(PRODUCT_PATH)) {
+            return chain.filter(exchange);
+        }
+        String clientId = exchange.getRequest().getHeaders().getFirst(properties.clientHeader());
+        ClassLimits limits = clientId != null ? classesByClient.getOrDefault(clientId, defaultClass) : defaultClass;
+        String key = clientId != null ? "id:" + clientId : "ip:" + remoteAddress(exchange);
+
+        long waitMillis = buckets.acquire(key, limits.rate, limits.burst);
+        if (waitMillis == 0) {
+            limits.allowed.increment();
+            return chain.filter(exchange);
+        }
+        limits.limited.increment();
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, Math.ceilDiv(waitMillis, 1000))));
+        return exchange.getResponse().setComplete();
+    }
+
+    // Before admission control, so a single client cannot consume the shared capacity
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+
+    private static String remoteAddress(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static final class ClassLimits {
+
+        private final int rate;
+        private final int burst;
+        private final Counter allowed;
+        private final Counter limited;
+
+        ClassLimits(String name, RateLimitProperties.ClientClass clientClass, MeterRegistry meterRegistry) {
+            this.rate = clientClass.rate();
+            this.burst = Math.min(clientClass.burst(), TokenBucketTable.MAX_BURST);
+            this.allowed = Counter.builder("rate.limit.requests")
+                    .tags("class", name, "result", "allowed").register(meterRegistry);
+            this.limited = Counter.builder("rate.limit.requests")
+                    .tags("class", name, "result", "limited").register(meterRegistry);
+        }
+    }
+}
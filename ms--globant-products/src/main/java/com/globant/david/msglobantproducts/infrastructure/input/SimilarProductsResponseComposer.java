@@ -0,0 +1,136 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.infrastructure.metrics.RequestTimings;
+import com.globant.david.msglobantproducts.infrastructure.metrics.StageTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Builds the cacheable representation of a {@code /similar} response and the HTTP response
+ * served from it, shared by the reactive and the blocking controllers.
+ * <p>
+ * Compositions are precompressed with the same threshold the server applies, so cached
+ * responses are compressed only once. Responses carry a strong ETag, answering {@code 304}
+ * when the client already has it, and {@code Cache-Control: max-age} is the remaining
+ * lifetime of the cached composition, so clients and edge caches never keep it longer than
+ * this service does. Degraded compositions are sent with {@code Cache-Control: no-store}.
+ * Composition (serialization and compression) is timed in {@code similar.products.stage}.
+ */
+@Component
+public class SimilarProductsResponseComposer {
+
+    private final JsonMapper jsonMapper;
+    private final Cache<String, ComposedSimilarProducts> similarProductsCache;
+    private final long gzipThreshold;
+    private final StageTimer composeStage;
+
+    public SimilarProductsResponseComposer(
+            JsonMapper jsonMapper,
+            Cache<String, ComposedSimilarProducts> similarProductsCache,
+            @Value("${server.compression.enabled:false}") boolean compressionEnabled,
+            @Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize,
+            MeterRegistry meterRegistry) {
+        this.jsonMapper = jsonMapper;
+        this.similarProductsCache = similarProductsCache;
+        this.gzipThreshold = compressionEnabled ? minResponseSize.toBytes() : -1;
+        this.composeStage = StageTimer.stage(meterRegistry, "compose");
+    }
+
+    public ComposedSimilarProducts compose(List<ProductDetail> products) {
+        return compose(products, null);
+    }
+
+    public ComposedSimilarProducts compose(List<ProductDetail> products, @Nullable RequestTimings timings) {
+        return compose(products, timings, false);
+    }
+
+    public ComposedSimilarProducts compose(List<ProductDetail> products, @Nullable RequestTimings timings,
+                                           boolean degraded) {
+        long start = System.nanoTime();
+        ComposedSimilarProducts composed = ComposedSimilarProducts.of(products, jsonMapper, gzipThreshold, degraded);
+        composeStage.record(start, "success", timings);
+        return composed;
+    }
+
+    /**
+     * Clients accepting gzip get the precompressed body; the server does not compress
+     * responses that already carry a {@code Content-Encoding}.
+     */
+    public ResponseEntity<byte[]> toResponse(String productId, ComposedSimilarProducts composed,
+                                             List<String> ifNoneMatch, List<String> acceptEncoding) {
+        boolean gzip = composed.gzipBody() != null && acceptsGzip(acceptEncoding);
+        String etag = gzip ? composed.gzipEtag() : composed.etag();
+        boolean notModified = matches(ifNoneMatch, etag);
+        ResponseEntity.BodyBuilder response = notModified
+                ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                : ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        response.eTag(etag).cacheControl(composed.degraded() ? CacheControl.noStore() : cacheControl(productId));
+        if (composed.gzipBody() != null) {
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (notModified) {
+            return response.build();
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(composed.gzipBody());
+        }
+        return response.body(composed.body());
+    }
+
+    private CacheControl cacheControl(String productId) {
+        Duration remaining = similarProductsCache.policy().expireVariably()
+                .flatMap(expiry -> expiry.getExpiresAfter(productId))
+                .orElse(Duration.ZERO);
+        return remaining.toSeconds() > 0 ? CacheControl.maxAge(remaining).cachePublic() : CacheControl.noCache();
+    }
+
+    private static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String header : acceptEncoding) {
+            for (String candidate : header.split(",")) {
+                String[] parts = candidate.trim().split(";");
+                String coding = parts[0].trim();
+                boolean rejected = parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+                if ((coding.equalsIgnoreCase("gzip") || coding.equals("*")) && !rejected) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.globant.david.msglobantproducts.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A lookup in one of the product caches. Emitted for every lookup, so it is disabled unless a
+ * recording enables it.
+ */
+@Name(CacheLookupEvent.NAME)
+@Label("Cache Lookup")
+@Category({"Globant Products", "Cache"})
+@Description("Lookup in a product cache")
+@StackTrace(false)
+@Enabled(false)
+public class CacheLookupEvent extends Event {
+
+    public static final String NAME = "com.globant.products.CacheLookup";
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Key")
+    String key;
+
+    @Label("Hit")
+    boolean hit;
+
+    /**
+     * Call after {@link #end()}; fields are only set when the event is recorded.
+     */
+    public void record(String cache, String key, boolean hit) {
+        if (shouldCommit()) {
+            this.cache = cache;
+            this.key = key;
+            this.hit = hit;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.globant.david.msglobantproducts.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * One logical upstream call, from subscription to its last signal, including retries.
+ * <p>
+ * Begun and committed by {@code ResilientProductWebClient}, usually on different threads, so
+ * the recorded thread is the one that completed the call. While the call runs the event sits
+ * in the Reactor context, where {@link #recordAttempts()} fills in the endpoint and status of
+ * every attempt.
+ */
+@Name(UpstreamCallEvent.NAME)
+@Label("Upstream Call")
+@Category({"Globant Products", "Upstream"})
+@Description("Call to the product API, with retries")
+@StackTrace(false)
+public class UpstreamCallEvent extends Event {
+
+    public static final String NAME = "com.globant.products.UpstreamCall";
+
+    private static final EventType TYPE = EventType.getEventType(UpstreamCallEvent.class);
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Product Id")
+    String productId;
+
+    @Label("Endpoint")
+    @Description("Base URL of the last attempt")
+    String endpoint;
+
+    @Label("Status")
+    @Description("HTTP status of the last attempt, 0 if there was no response")
+    int status;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Outcome")
+    @Description("success, not_found, error, circuit_open or cancelled")
+    String outcome;
+
+    public UpstreamCallEvent(String operation, String productId) {
+        this.operation = operation;
+        this.productId = productId;
+    }
+
+    /**
+     * Checked before creating an event, so calls cost a field read while no recording asks for it.
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+
+    public void complete(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    /**
+     * Registered on the upstream {@code WebClient.Builder}; a no-op for calls without an event.
+     */
+    public static ExchangeFilterFunction recordAttempts() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            UpstreamCallEvent event = context.getOrDefault(UpstreamCallEvent.class, null);
+            if (event == null) {
+                return next.exchange(request);
+            }
+            event.attempts++;
+            event.status = 0;
+            event.endpoint = request.url().getScheme() + "://" + request.url().getAuthority();
+            return next.exchange(request).doOnNext(response -> event.status = response.statusCode().value());
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.globant.david.msglobantproducts.infrastructure.metrics;
+
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request breakdown of where a {@code /similar} response spent its time, rendered as a
+ * {@code Server-Timing} header.
+ * <p>
+ * Travels in the Reactor context under {@link #CONTEXT_KEY} only for requests that asked for
+ * it; {@link StageTimer} adds to it next to its histograms, from whichever thread a stage
+ * completes on.
+ */
+public final class RequestTimings {
+
+    public static final String CONTEXT_KEY = RequestTimings.class.getName();
+
+    private final long start = System.nanoTime();
+    private final AtomicLong cachedResponseNanos = new AtomicLong(-1);
+    private final AtomicLong similarIdsNanos = new AtomicLong(-1);
+    private final AtomicLong detailsNanos = new AtomicLong(-1);
+    private final AtomicLong slowestDetailNanos = new AtomicLong(-1);
+    private final AtomicLong composeNanos = new AtomicLong(-1);
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    void record(String stage, String outcome, long nanos) {
+        switch (stage) {
+            case "cached_response" -> cachedResponseNanos.set(nanos);
+            case "similar_ids" -> similarIdsNanos.set(nanos);
+            case "product_detail" -> slowestDetailNanos.accumulateAndGet(nanos, Math::max);
+            case "details" -> detailsNanos.set(nanos);
+            case "compose" -> composeNanos.set(nanos);
+            default -> {
+                return;
+            }
+        }
+        if (outcome.equals("hit") || outcome.equals("stale")) {
+            hits.incrementAndGet();
+        } else if (!outcome.equals("success") && !outcome.equals("cancelled")) {
+            misses.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param responseCached whether the composed response came from the response cache
+     * @param encoding       the {@code Content-Encoding} sent, {@code identity} if none
+     */
+    public String toHeader(boolean responseCached, String encoding) {
+        StringJoiner header = new StringJoiner(", ");
+        if (responseCached) {
+            header.add("cache;desc=\"response\"");
+        } else {
+            metric(header, "cached-response", cachedResponseNanos.get());
+            metric(header, "similar-ids", similarIdsNanos.get());
+            metric(header, "details", detailsNanos.get());
+            metric(header, "slowest-detail", slowestDetailNanos.get());
+            header.add("cache;desc=\"hits=" + hits.get() + " misses=" + misses.get() + "\"");
+        }
+        long compose = composeNanos.get();
+        header.add("encode" + (compose >= 0 ? ";dur=" + millis(compose) : "") + ";desc=\"" + encoding + "\"");
+        metric(header, "total", System.nanoTime() - start);
+        return header.toString();
+    }
+
+    private static void metric(StringJoiner header, String name, long nanos) {
+        if (nanos >= 0) {
+            header.add(name + ";dur=" + millis(nanos));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 10_000.0) / 100.0);
+    }
+}
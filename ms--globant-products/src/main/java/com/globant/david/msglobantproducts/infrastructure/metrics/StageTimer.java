@@ -0,0 +1,123 @@
+package com.globant.david.msglobantproducts.infrastructure.metrics;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jspecify.annotations.Nullable;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one stage of serving a request, with a percentile histogram per outcome.
+ * <p>
+ * Outcomes of failed calls are {@code not_found} (404), {@code circuit_open} and {@code error};
+ * subscribers that cancel are recorded as {@code cancelled}. The stages of a {@code /similar}
+ * request, created with {@link #stage}, are also added to the {@link RequestTimings} of the
+ * request when it carries one.
+ */
+public final class StageTimer {
+
+    public static final String STAGES = "similar.products.stage";
+
+    private final Meter.MeterProvider<Timer> timers;
+    private final @Nullable String stage;
+
+    public StageTimer(MeterRegistry meterRegistry, String name, String tagKey, String tagValue) {
+        this(meterRegistry, name, tagKey, tagValue, null);
+    }
+
+    private StageTimer(MeterRegistry meterRegistry, String name, String tagKey, String tagValue, @Nullable String stage) {
+        this.timers = Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.stage = stage;
+    }
+
+    public static StageTimer stage(MeterRegistry meterRegistry, String stage) {
+        return new StageTimer(meterRegistry, STAGES, "stage", stage, stage);
+    }
+
+    public void record(long startNanos, String outcome) {
+        record(startNanos, outcome, null);
+    }
+
+    public void record(long startNanos, String outcome, @Nullable RequestTimings timings) {
+        long nanos = System.nanoTime() - startNanos;
+        timers.withTag("outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+        if (timings != null && stage != null) {
+            timings.record(stage, outcome, nanos);
+        }
+    }
+
+    /**
+     * Records a cache hit that took from {@code startNanos} until now, and returns its value.
+     */
+    public <T> Mono<T> hit(long startNanos, T value) {
+        return hit(startNanos, value, "hit");
+    }
+
+    /**
+     * Like {@link #hit(long, Object)} for values answered from cache under another outcome,
+     * e.g. {@code stale}.
+     */
+    public <T> Mono<T> hit(long startNanos, T value, String outcome) {
+        long nanos = System.nanoTime() - startNanos;
+        timers.withTag("outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+        if (stage == null) {
+            return Mono.just(value);
+        }
+        return Mono.deferContextual(context -> {
+            RequestTimings timings = timings(context);
+            if (timings != null) {
+                timings.record(stage, outcome, nanos);
+            }
+            return Mono.just(value);
+        });
+    }
+
+    /**
+     * Times {@code call} from subscription; a value is recorded as {@code outcome}, completing
+     * empty as {@code not_found}.
+     */
+    public <T> Mono<T> time(Mono<T> call, String outcome) {
+        return Mono.deferContextual(context -> {
+            long start = System.nanoTime();
+            RequestTimings timings = timings(context);
+            return call
+                    .doOnSuccess(value -> record(start, value != null ? outcome : "not_found", timings))
+                    .doOnError(e -> record(start, outcomeOf(e), timings))
+                    .doOnCancel(() -> record(start, "cancelled", timings));
+        });
+    }
+
+    public <T> Flux<T> time(Flux<T> call, String outcome) {
+        return Flux.deferContextual(context -> {
+            long start = System.nanoTime();
+            RequestTimings timings = timings(context);
+            return call
+                    .doOnComplete(() -> record(start, outcome, timings))
+                    .doOnError(e -> record(start, outcomeOf(e), timings))
+                    .doOnCancel(() -> record(start, "cancelled", timings));
+        });
+    }
+
+    private @Nullable RequestTimings timings(ContextView context) {
+        return stage != null ? context.getOrDefault(RequestTimings.CONTEXT_KEY, null) : null;
+    }
+
+    public static String outcomeOf(Throwable error) {
+        if (error instanceof CallNotPermittedException) {
+            return "circuit_open";
+        }
+        if (error instanceof WebClientResponseException.NotFound) {
+            return "not_found";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,40 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Other instances of the service that share the product detail cache.
+ * <p>
+ * On a local miss the product is loaded from the peer that owns it, so the upstream is asked
+ * once per product across the cluster instead of once per instance.
+ */
+public interface ProductDetailPeers {
+
+    ProductDetailPeers NONE = new ProductDetailPeers() {
+
+        @Override
+        public Mono<ProductResponse> load(String productId, Function<String, Mono<ProductResponse>> upstream) {
+            return upstream.apply(productId);
+        }
+
+        @Override
+        public boolean cacheLocally(String productId) {
+            return true;
+        }
+    };
+
+    /**
+     * Loads a product from its owning peer, or through {@code upstream} when this instance
+     * owns it or the owner cannot answer.
+     */
+    Mono<ProductResponse> load(String productId, Function<String, Mono<ProductResponse>> upstream);
+
+    /**
+     * Whether a loaded product should be kept in the local caches: always for owned products,
+     * and for products owned by a peer only once they are hot.
+     */
+    boolean cacheLocally(String productId);
+}
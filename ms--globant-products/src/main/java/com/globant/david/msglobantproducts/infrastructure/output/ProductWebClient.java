@@ -1,34 +0,0 @@
-package com.globant.david.msglobantproducts.infrastructure.output;
-
-import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
-
-import java.util.List;
-
-@Component
-public class ProductWebClient {
-
-    private final WebClient webClient;
-
-    public ProductWebClient(WebClient.Builder webClientBuilder, @Value("${external-api.base-url}") String baseUrl) {
-        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
-    }
-
-    public Mono<List<String>> getSimilarIds(String productId) {
-        return webClient.get()
-                .uri("/product/{id}/similarids", productId)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<String>>() {});
-    }
-
-    public Mono<ProductResponse> getProduct(String productId) {
-        return webClient.get()
-                .uri("/product/{id}", productId)
-                .retrieve()
-                .bodyToMono(ProductResponse.class);
-    }
-}
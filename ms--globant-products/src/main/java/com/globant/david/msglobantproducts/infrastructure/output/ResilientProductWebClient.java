@@ -1,60 +1,209 @@
 package com.globant.david.msglobantproducts.infrastructure.output;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.infrastructure.jfr.UpstreamCallEvent;
+import com.globant.david.msglobantproducts.infrastructure.metrics.StageTimer;
 import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ValidatedProductResponse;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import io.github.resilience4j.reactor.retry.RetryOperator;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Upstream product API client behind the {@code productApiClient} circuit breaker and retry.
+ * <p>
+ * Calls made with {@link #BACKGROUND} in their Reactor context (prefetching, stale-availability
+ * refreshes) go through the separate {@code productApiPrefetch} circuit breaker and are not
+ * retried, so background failures never count towards opening the breaker that guards
+ * foreground requests.
+ */
 @Component
 public class ResilientProductWebClient {
 
+    /**
+     * Reactor context key marking calls made by background work rather than by a request.
+     */
+    public static final String BACKGROUND = ResilientProductWebClient.class.getName() + ".BACKGROUND";
+
     private static final Logger log = LoggerFactory.getLogger(ResilientProductWebClient.class);
 
-    private final WebClient webClient;
+    private final UpstreamEndpoints endpoints;
     private final CircuitBreaker circuitBreaker;
     private final Retry retry;
+    private final CircuitBreaker backgroundCircuitBreaker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Cache<String, ValidatedProductResponse> productValidatorCache;
+    private final Counter notModified;
+    private final Counter modified;
+    private final Counter unconditional;
+    private final Counter unexpectedNotModified;
+    private final StageTimer similarIdsRequests;
+    private final StageTimer productRequests;
 
     public ResilientProductWebClient(
-            WebClient.Builder webClientBuilder,
-            @Value("${external-api.base-url}") String baseUrl,
+            UpstreamEndpoints endpoints,
             CircuitBreakerRegistry circuitBreakerRegistry,
-            RetryRegistry retryRegistry) {
-        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+            RetryRegistry retryRegistry,
+            Cache<String, ValidatedProductResponse> productValidatorCache,
+            MeterRegistry meterRegistry) {
+        this.endpoints = endpoints;
         this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("productApiClient");
         this.retry = retryRegistry.retry("productApiClient");
+        this.backgroundCircuitBreaker = circuitBreakerRegistry.circuitBreaker("productApiPrefetch");
+        this.productValidatorCache = productValidatorCache;
+        this.notModified = Counter.builder("upstream.revalidation").tag("result", "not_modified").register(meterRegistry);
+        this.modified = Counter.builder("upstream.revalidation").tag("result", "modified").register(meterRegistry);
+        this.unconditional = Counter.builder("upstream.revalidation").tag("result", "unconditional").register(meterRegistry);
+        this.unexpectedNotModified = Counter.builder("upstream.revalidation")
+                .tag("result", "unexpected_not_modified").register(meterRegistry);
+        this.similarIdsRequests = new StageTimer(meterRegistry, "upstream.requests", "operation", "similar_ids");
+        this.productRequests = new StageTimer(meterRegistry, "upstream.requests", "operation", "product");
     }
 
     public Mono<List<String>> getSimilarIds(String productId) {
-        return webClient.get()
-                .uri("/product/{id}/similarids", productId)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<String>>() {})
-                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
-                .transformDeferred(RetryOperator.of(retry))
+        return endpoints.call(webClient -> webClient.get()
+                        .uri("/product/{id}/similarids", productId)
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<List<String>>() {}))
+                .transform(this::resilient)
+                .transform(call -> similarIdsRequests.time(call, "success"))
+                .transform(call -> recordCall(call, "similar_ids", productId))
+                .transform(this::trackInFlight)
                 .doOnError(e -> log.error("Error fetching similar IDs for product {}: {}", productId, e.getMessage()))
                 .doOnSuccess(__ -> log.debug("Successfully fetched similar IDs for product {}", productId));
     }
 
+    /**
+     * Fetches a product, revalidating with {@code If-None-Match}/{@code If-Modified-Since} when
+     * validators from a previous response are known. A {@code 304} returns the stored body,
+     * which callers treat as fresh. Upstreams that send no validators get plain requests. A
+     * {@code 304} with no stored body to reuse, e.g. from an intermediary cache, is asked once
+     * more with {@code Cache-Control: no-cache} rather than failing the call.
+     */
     public Mono<ProductResponse> getProduct(String productId) {
-        return webClient.get()
-                .uri("/product/{id}", productId)
-                .retrieve()
-                .bodyToMono(ProductResponse.class)
-                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
-                .transformDeferred(RetryOperator.of(retry))
+        return endpoints.call(webClient -> {
+                    ValidatedProductResponse known = productValidatorCache.getIfPresent(productId);
+                    return webClient.get()
+                            .uri("/product/{id}", productId)
+                            .headers(headers -> addValidators(headers, known))
+                            .exchangeToMono(response -> readProduct(productId, response, known, webClient));
+                })
+                .transform(this::resilient)
+                .transform(call -> productRequests.time(call, "success"))
+                .transform(call -> recordCall(call, "product", productId))
+                .transform(this::trackInFlight)
                 .doOnError(e -> log.error("Error fetching product detail for {}: {}", productId, e.getMessage()))
                 .doOnSuccess(__ -> log.debug("Successfully fetched product detail for {}", productId));
     }
+
+    private static void addValidators(HttpHeaders headers, ValidatedProductResponse known) {
+        if (known == null) {
+            return;
+        }
+        if (known.etag() != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, known.etag());
+        }
+        if (known.lastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, known.lastModified());
+        }
+    }
+
+    /**
+     * @param refetchWith client to ask again on a {@code 304} without a stored body, or
+     *                    {@code null} when this response already answers such a request
+     */
+    private Mono<ProductResponse> readProduct(String productId, ClientResponse response,
+                                              @Nullable ValidatedProductResponse known, @Nullable WebClient refetchWith) {
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && known != null) {
+            notModified.increment();
+            return response.releaseBody().thenReturn(known.response());
+        }
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && refetchWith != null) {
+            unexpectedNotModified.increment();
+            log.warn("Unexpected 304 for product {} without a stored body, fetching it again", productId);
+            productValidatorCache.invalidate(productId);
+            return response.releaseBody().then(refetchWith.get()
+                    .uri("/product/{id}", productId)
+                    .header(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue())
+                    .exchangeToMono(refetched -> readProduct(productId, refetched, null, null)));
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createError();
+        }
+        (known != null ? modified : unconditional).increment();
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        return response.bodyToMono(ProductResponse.class)
+                .doOnNext(body -> {
+                    if (etag != null || lastModified != null) {
+                        productValidatorCache.put(productId, new ValidatedProductResponse(body, etag, lastModified));
+                    } else {
+                        productValidatorCache.invalidate(productId);
+                    }
+                });
+    }
+
+    /**
+     * Number of upstream calls currently in flight, used as a pressure signal by
+     * background work that must yield to foreground traffic.
+     */
+    public int inFlightRequests() {
+        return inFlight.get();
+    }
+
+    public boolean isCircuitClosed() {
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    private <T> Mono<T> resilient(Mono<T> call) {
+        return Mono.deferContextual(context -> context.hasKey(BACKGROUND)
+                ? call.transformDeferred(CircuitBreakerOperator.of(backgroundCircuitBreaker))
+                : call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                        .transformDeferred(RetryOperator.of(retry)));
+    }
+
+    /**
+     * Emits an {@link UpstreamCallEvent} per call while a flight recording asks for it.
+     */
+    private <T> Mono<T> recordCall(Mono<T> call, String operation, String productId) {
+        if (!UpstreamCallEvent.enabled()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            UpstreamCallEvent event = new UpstreamCallEvent(operation, productId);
+            event.begin();
+            return call
+                    .doOnSuccess(__ -> event.complete("success"))
+                    .doOnError(e -> event.complete(StageTimer.outcomeOf(e)))
+                    .doOnCancel(() -> event.complete("cancelled"))
+                    .contextWrite(Context.of(UpstreamCallEvent.class, event));
+        });
+    }
+
+    private <T> Mono<T> trackInFlight(Mono<T> call) {
+        return call
+                .doOnSubscribe(__ -> inFlight.incrementAndGet())
+                .doFinally(__ -> inFlight.decrementAndGet());
+    }
 }
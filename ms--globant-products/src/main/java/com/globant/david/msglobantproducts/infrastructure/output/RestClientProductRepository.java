@@ -0,0 +1,178 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.application.DegradedResponse;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Blocking counterpart of {@link WebClientProductRepository} for the {@code blocking} profile,
+ * meant to run on virtual threads.
+ * <p>
+ * It shares the product caches and the {@code productApiClient} circuit breaker and retry
+ * with the reactive stack, and follows the same cache-aside rules, including marking the
+ * caller's {@link DegradedResponse} when it falls back after an upstream failure. The details of a response
+ * are fetched in parallel, one virtual thread per product, inside a per-call executor scope
+ * that does not return before every fetch has finished.
+ */
+@Repository
+@Profile("blocking")
+public class RestClientProductRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(RestClientProductRepository.class);
+
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final Cache<String, ProductDetail> productDetailCache;
+    private final Cache<String, List<String>> similarIdsCache;
+    private final Cache<String, Boolean> availabilityCache;
+    private final int maxConcurrency;
+
+    public RestClientProductRepository(
+            @Value("${external-api.base-url}") String baseUrl,
+            @Value("${webclient.http-client.connect-timeout}") int connectTimeoutMillis,
+            @Value("${webclient.http-client.response-timeout}") Duration responseTimeout,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            Cache<String, ProductDetail> productDetailCache,
+            Cache<String, List<String>> similarIdsCache,
+            Cache<String, Boolean> availabilityCache,
+            @Value("${webclient.flatmap-concurrency}") int maxConcurrency) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(responseTimeout);
+        this.restClient = RestClient.builder().baseUrl(baseUrl).requestFactory(requestFactory).build();
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("productApiClient");
+        this.retry = retryRegistry.retry("productApiClient");
+        this.productDetailCache = productDetailCache;
+        this.similarIdsCache = similarIdsCache;
+        this.availabilityCache = availabilityCache;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public List<String> findSimilarIds(String productId, DegradedResponse degraded) {
+        List<String> cached = similarIdsCache.getIfPresent(productId);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> ids;
+        try {
+            ids = call(() -> restClient.get()
+                    .uri("/product/{id}/similarids", productId)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<String>>() {}));
+        } catch (CallNotPermittedException e) {
+            log.warn("Circuit breaker is OPEN for similar IDs - serving cached or empty response");
+            degraded.markDegraded();
+            return List.of();
+        } catch (HttpClientErrorException.NotFound e) {
+            ids = List.of();
+        } catch (RuntimeException e) {
+            log.error("Error fetching similar IDs: {}", e.getMessage());
+            degraded.markDegraded();
+            return List.of();
+        }
+        ids = ids != null ? ids : List.of();
+        similarIdsCache.put(productId, ids);
+        return ids;
+    }
+
+    public Optional<ProductDetail> findProductDetail(String productId, DegradedResponse degraded) {
+        ProductDetail cached = productDetailCache.getIfPresent(productId);
+        if (cached != null) {
+            Boolean availability = availabilityCache.getIfPresent(productId);
+            if (availability != null) {
+                return Optional.of(cached.withAvailability(availability));
+            }
+        }
+        ProductResponse response;
+        try {
+            response = call(() -> restClient.get()
+                    .uri("/product/{id}", productId)
+                    .retrieve()
+                    .body(ProductResponse.class));
+        } catch (CallNotPermittedException e) {
+            log.warn("Circuit breaker is OPEN for product detail - serving cached or empty response");
+            degraded.markDegraded();
+            return Optional.ofNullable(cached);
+        } catch (HttpClientErrorException.NotFound e) {
+            log.warn("Product not found: {}", productId);
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            log.error("Error fetching product detail for {}: {}", productId, e.getMessage());
+            degraded.markDegraded();
+            return Optional.ofNullable(cached);
+        }
+        if (response == null) {
+            return Optional.empty();
+        }
+        ProductDetail detail = new ProductDetail(response.id(), response.name(), response.price(), response.availability());
+        productDetailCache.put(productId, detail);
+        if (detail.availability() != null) {
+            availabilityCache.put(productId, detail.availability());
+        }
+        return Optional.of(detail);
+    }
+
+    /**
+     * Fetches the details of {@code productIds} in parallel, at most {@code flatmap-concurrency}
+     * at once, keeping their order.
+     */
+    public List<ProductDetail> findProductDetails(List<String> productIds, DegradedResponse degraded) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<Optional<ProductDetail>>> fetches = new ArrayList<>(productIds.size());
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String productId : productIds) {
+                fetches.add(scope.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return findProductDetail(productId, degraded);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        List<ProductDetail> details = new ArrayList<>(productIds.size());
+        for (Future<Optional<ProductDetail>> fetch : fetches) {
+            if (fetch.state() == Future.State.SUCCESS) {
+                fetch.resultNow()
+                        .filter(detail -> detail.id() != null)
+                        .ifPresent(details::add);
+            }
+        }
+        return details;
+    }
+
+    private <T> T call(Supplier<T> request) {
+        return Retry.decorateSupplier(retry, CircuitBreaker.decorateSupplier(circuitBreaker, request)).get();
+    }
+}
@@ -0,0 +1,259 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads upstream calls over several base URLs of the same API.
+ * <p>
+ * Each call picks two endpoints at random and goes to the one with fewer requests in flight,
+ * breaking ties on the lower latency average (power of two choices). Endpoints are ejected
+ * passively, from the outcome of real calls: after {@code consecutiveFailures} connection
+ * errors, timeouts or 5xx in a row, or when their latency average exceeds {@code latencyFactor}
+ * times the average of the other endpoints. An ejected endpoint gets no traffic for
+ * {@code baseEjectionTime} times the number of times it was ejected, and at most
+ * {@code maxEjectionPercent} of the endpoints are ejected at once, so a single endpoint is never
+ * ejected.
+ */
+public class UpstreamEndpoints {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamEndpoints.class);
+
+    private static final double ALPHA = 0.3;
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    public record OutlierEjection(int consecutiveFailures, double latencyFactor, int minRequests,
+                                  Duration baseEjectionTime, int maxEjectionPercent) {
+
+        public static final OutlierEjection DEFAULTS = new OutlierEjection(5, 3.0, 20, Duration.ofSeconds(30), 50);
+    }
+
+    private final Endpoint[] endpoints;
+    private final OutlierEjection ejection;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamEndpoints(WebClient.Builder webClientBuilder, List<String> baseUrls,
+                             OutlierEjection ejection, MeterRegistry meterRegistry) {
+        this(webClientBuilder, baseUrls, ejection, meterRegistry, System::nanoTime);
+    }
+
+    UpstreamEndpoints(WebClient.Builder webClientBuilder, List<String> baseUrls,
+                      OutlierEjection ejection, MeterRegistry meterRegistry, LongSupplier clock) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one upstream base URL is required");
+        }
+        this.ejection = ejection;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.endpoints = baseUrls.stream()
+                .map(String::strip)
+                .distinct()
+                .map(baseUrl -> new Endpoint(baseUrl, webClientBuilder.clone().baseUrl(baseUrl).build()))
+                .toArray(Endpoint[]::new);
+    }
+
+    /**
+     * Runs {@code request} against the endpoint picked at subscription, so each retry picks again.
+     */
+    public <T> Mono<T> call(Function<WebClient, Mono<T>> request) {
+        return Mono.defer(() -> {
+            Endpoint endpoint = select();
+            long start = clock.getAsLong();
+            endpoint.outstanding.incrementAndGet();
+            return request.apply(endpoint.webClient)
+                    .doOnSuccess(__ -> record(endpoint, clock.getAsLong() - start, false))
+                    .doOnError(e -> record(endpoint, clock.getAsLong() - start, isFailure(e)))
+                    .doFinally(__ -> endpoint.outstanding.decrementAndGet());
+        });
+    }
+
+    public List<String> baseUrls() {
+        return Arrays.stream(endpoints).map(endpoint -> endpoint.baseUrl).toList();
+    }
+
+    Endpoint select() {
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        long now = clock.getAsLong();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(endpoints.length);
+        int second = random.nextInt(endpoints.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = endpoints[first];
+        Endpoint b = endpoints[second];
+        boolean aAvailable = a.available(now);
+        boolean bAvailable = b.available(now);
+        if (aAvailable != bAvailable) {
+            return aAvailable ? a : b;
+        }
+        if (!aAvailable) {
+            for (Endpoint endpoint : endpoints) {
+                if (endpoint.available(now)) {
+                    return endpoint;
+                }
+            }
+        }
+        int aOutstanding = a.outstanding.get();
+        int bOutstanding = b.outstanding.get();
+        if (aOutstanding != bOutstanding) {
+            return aOutstanding < bOutstanding ? a : b;
+        }
+        return a.latencyNanos <= b.latencyNanos ? a : b;
+    }
+
+    private void record(Endpoint endpoint, long nanos, boolean failed) {
+        (failed ? endpoint.failures : endpoint.successes).record(nanos, TimeUnit.NANOSECONDS);
+        String reason;
+        synchronized (endpoint) {
+            endpoint.samples++;
+            endpoint.latencyNanos = endpoint.samples == 1
+                    ? nanos
+                    : endpoint.latencyNanos + ALPHA * (nanos - endpoint.latencyNanos);
+            endpoint.consecutiveFailures = failed ? endpoint.consecutiveFailures + 1 : 0;
+            if (endpoint.consecutiveFailures >= ejection.consecutiveFailures()) {
+                reason = "errors";
+            } else if (isSlow(endpoint)) {
+                reason = "latency";
+            } else {
+                return;
+            }
+        }
+        eject(endpoint, reason);
+    }
+
+    private boolean isSlow(Endpoint endpoint) {
+        if (ejection.latencyFactor() <= 0 || endpoint.samples < ejection.minRequests()) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        double total = 0;
+        int others = 0;
+        for (Endpoint other : endpoints) {
+            if (other != endpoint && other.samples > 0 && !other.isEjected(now)) {
+                total += other.latencyNanos;
+                others++;
+            }
+        }
+        return others > 0 && endpoint.latencyNanos > ejection.latencyFactor() * (total / others);
+    }
+
+    private synchronized void eject(Endpoint endpoint, String reason) {
+        long now = clock.getAsLong();
+        if (!endpoint.available(now)) {
+            return;
+        }
+        int ejected = 0;
+        for (Endpoint other : endpoints) {
+            if (!other.available(now)) {
+                ejected++;
+            }
+        }
+        if ((ejected + 1) * 100 > ejection.maxEjectionPercent() * endpoints.length) {
+            return;
+        }
+        endpoint.ejections++;
+        Duration duration = ejection.baseEjectionTime()
+                .multipliedBy(Math.min(endpoint.ejections, MAX_EJECTION_MULTIPLIER));
+        endpoint.ejectedUntil = now + duration.toNanos();
+        endpoint.ejected = true;
+        Counter.builder("upstream.endpoint.ejections")
+                .tag("endpoint", endpoint.baseUrl)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Ejected upstream endpoint {} for {} ms ({})", endpoint.baseUrl, duration.toMillis(), reason);
+    }
+
+    /**
+     * Failures that say something about the endpoint; 4xx and other application errors do not.
+     */
+    private static boolean isFailure(Throwable error) {
+        return error instanceof WebClientRequestException
+                || error instanceof TimeoutException
+                || error instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+
+    final class Endpoint {
+
+        private final String baseUrl;
+        private final WebClient webClient;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final Timer successes;
+        private final Timer failures;
+        private volatile double latencyNanos;
+        private volatile boolean ejected;
+        private volatile long ejectedUntil;
+        private int samples;
+        private int consecutiveFailures;
+        private int ejections;
+
+        private Endpoint(String baseUrl, WebClient webClient) {
+            this.baseUrl = baseUrl;
+            this.webClient = webClient;
+            this.successes = Timer.builder("upstream.endpoint.requests")
+                    .tag("endpoint", baseUrl).tag("outcome", "success").register(meterRegistry);
+            this.failures = Timer.builder("upstream.endpoint.requests")
+                    .tag("endpoint", baseUrl).tag("outcome", "failure").register(meterRegistry);
+            Gauge.builder("upstream.endpoint.outstanding", outstanding, AtomicInteger::get)
+                    .tag("endpoint", baseUrl).register(meterRegistry);
+            Gauge.builder("upstream.endpoint.latency", this, endpoint -> endpoint.latencyNanos / 1_000_000)
+                    .tag("endpoint", baseUrl).baseUnit("milliseconds").register(meterRegistry);
+            Gauge.builder("upstream.endpoint.ejected", this, endpoint -> endpoint.available(clock.getAsLong()) ? 0 : 1)
+                    .tag("endpoint", baseUrl).register(meterRegistry);
+        }
+
+        /**
+         * An endpoint coming back from ejection starts over: its failures and latency are
+         * forgotten, so the next calls probe it.
+         */
+        boolean available(long now) {
+            if (!isEjected(now)) {
+                if (ejected) {
+                    restore();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isEjected(long now) {
+            return ejected && now - ejectedUntil < 0;
+        }
+
+        private synchronized void restore() {
+            if (ejected) {
+                samples = 0;
+                latencyNanos = 0;
+                consecutiveFailures = 0;
+                ejected = false;
+                log.info("Upstream endpoint {} back in rotation", baseUrl);
+            }
+        }
+
+        String baseUrl() {
+            return baseUrl;
+        }
+    }
+}
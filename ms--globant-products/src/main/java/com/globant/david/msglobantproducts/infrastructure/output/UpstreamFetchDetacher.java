@@ -0,0 +1,101 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps upstream fetches running after the client that triggered them goes away.
+ * <p>
+ * When a request is cancelled (client disconnect or timeout), Reactor cancels every
+ * in-flight upstream call of its chain, throwing away responses that were nearly done.
+ * A fetch wrapped with {@link #detachOnCancel(Mono)} is instead detached from the cancelled
+ * subscriber and allowed to complete, so its result still lands in the cache for the next
+ * request. The fetch keeps the Reactor context of its original subscriber. Detached fetches are
+ * bounded by {@code max-detached}; beyond it they are cancelled as usual.
+ */
+@Component
+public class UpstreamFetchDetacher {
+
+    private static final int ATTACHED = 0;
+    private static final int DETACHED = 1;
+    private static final int FINISHED = 2;
+
+    private final boolean enabled;
+    private final int maxDetached;
+    private final Semaphore budget;
+    private final Counter cancelledRequests;
+    private final Counter detached;
+    private final Counter salvaged;
+    private final Counter dropped;
+
+    public UpstreamFetchDetacher(
+            MeterRegistry meterRegistry,
+            @Value("${webclient.detach-on-cancel.enabled:true}") boolean enabled,
+            @Value("${webclient.detach-on-cancel.max-detached:50}") int maxDetached) {
+        this.enabled = enabled;
+        this.maxDetached = maxDetached;
+        this.budget = new Semaphore(maxDetached);
+        this.cancelledRequests = Counter.builder("upstream.cancelled.requests").register(meterRegistry);
+        this.detached = Counter.builder("upstream.detached.fetches").tag("result", "detached").register(meterRegistry);
+        this.salvaged = Counter.builder("upstream.detached.fetches").tag("result", "salvaged").register(meterRegistry);
+        this.dropped = Counter.builder("upstream.detached.fetches").tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("upstream.detached.in-flight", this, UpstreamFetchDetacher::detachedInFlight)
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> detachOnCancel(Mono<T> fetch) {
+        if (!enabled) {
+            return fetch;
+        }
+        return Mono.create(sink -> {
+            AtomicInteger state = new AtomicInteger(ATTACHED);
+            Disposable upstream = fetch
+                    .doFinally(__ -> {
+                        if (state.getAndSet(FINISHED) == DETACHED) {
+                            budget.release();
+                        }
+                    })
+                    .contextWrite(sink.contextView())
+                    .subscribe(value -> {
+                        if (state.get() == DETACHED) {
+                            salvaged.increment();
+                        }
+                        sink.success(value);
+                    }, sink::error, sink::success);
+            sink.onCancel(() -> {
+                if (state.get() == FINISHED) {
+                    return;
+                }
+                if (budget.tryAcquire()) {
+                    if (state.compareAndSet(ATTACHED, DETACHED)) {
+                        detached.increment();
+                    } else {
+                        budget.release();
+                    }
+                } else {
+                    dropped.increment();
+                    upstream.dispose();
+                }
+            });
+        });
+    }
+
+    /**
+     * Records a request whose subscriber cancelled before it completed.
+     */
+    public void requestCancelled() {
+        cancelledRequests.increment();
+    }
+
+    public int detachedInFlight() {
+        return maxDetached - budget.availablePermits();
+    }
+}
@@ -1,10 +1,15 @@
 package com.globant.david.msglobantproducts.infrastructure.output;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.globant.david.msglobantproducts.application.DegradedResponse;
 import com.globant.david.msglobantproducts.domain.model.ProductDetail;
 import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.jfr.CacheLookupEvent;
+import com.globant.david.msglobantproducts.infrastructure.metrics.StageTimer;
 import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,60 +17,114 @@ import org.springframework.stereotype.Repository;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Upstream-backed repository with cache-aside reads.
+ * <p>
+ * Product details are cached in two parts with independent TTLs: the static attributes
+ * (name, price) in {@code productDetailCache} and the volatile availability flag in
+ * {@code availabilityCache}. The upstream has no cheaper availability endpoint, so a cached
+ * product whose availability expired is fetched again in full. With {@code serveStaleAvailability}
+ * the cached attributes are answered right away with their last known availability
+ * (outcome {@code stale}) while one background fetch per product, through the background
+ * circuit breaker, refreshes both caches; otherwise the request waits for the fetch and, if
+ * the upstream fails, the cached attributes are served with their last known availability. Answers that fall back after an upstream
+ * failure mark the request's {@link DegradedResponse}, and failed similar ids are not cached.
+ * Misses are loaded through {@link ProductDetailPeers}, which decides whether the result is
+ * kept locally. Every lookup is timed in {@link StageTimer#STAGES} by stage and outcome ({@code hit},
+ * {@code stale}, {@code miss}, {@code not_found}, {@code error}, {@code circuit_open}), and
+ * every cache read can be recorded as a {@link CacheLookupEvent}.
+ */
 @Repository
 public class WebClientProductRepository implements ProductRepository {
 
     private static final Logger log = LoggerFactory.getLogger(WebClientProductRepository.class);
 
     private final ResilientProductWebClient productWebClient;
+    private final ProductDetailPeers peers;
     private final Cache<String, ProductDetail> productDetailCache;
     private final Cache<String, List<String>> similarIdsCache;
+    private final Cache<String, Boolean> availabilityCache;
+    private final UpstreamFetchDetacher fetchDetacher;
     private final int flatmapConcurrency;
+    private final boolean serveStaleAvailability;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final StageTimer cachedResponseStage;
+    private final StageTimer similarIdsStage;
+    private final StageTimer productDetailStage;
+    private final StageTimer detailsStage;
 
     public WebClientProductRepository(
             ResilientProductWebClient productWebClient,
+            ProductDetailPeers peers,
             Cache<String, ProductDetail> productDetailCache,
             Cache<String, List<String>> similarIdsCache,
-            @Value("${webclient.flatmap-concurrency}") int flatmapConcurrency) {
+            Cache<String, Boolean> availabilityCache,
+            UpstreamFetchDetacher fetchDetacher,
+            MeterRegistry meterRegistry,
+            @Value("${webclient.flatmap-concurrency}") int flatmapConcurrency,
+            @Value("${cache.availability.serve-stale:true}") boolean serveStaleAvailability) {
         this.productWebClient = productWebClient;
+        this.peers = peers;
         this.productDetailCache = productDetailCache;
         this.similarIdsCache = similarIdsCache;
+        this.availabilityCache = availabilityCache;
+        this.fetchDetacher = fetchDetacher;
         this.flatmapConcurrency = flatmapConcurrency;
+        this.serveStaleAvailability = serveStaleAvailability;
+        this.cachedResponseStage = StageTimer.stage(meterRegistry, "cached_response");
+        this.similarIdsStage = StageTimer.stage(meterRegistry, "similar_ids");
+        this.productDetailStage = StageTimer.stage(meterRegistry, "product_detail");
+        this.detailsStage = StageTimer.stage(meterRegistry, "details");
     }
 
     @Override
     public Mono<List<String>> findSimilarIds(String productId) {
-        List<String> cached = similarIdsCache.getIfPresent(productId);
+        long start = System.nanoTime();
+        List<String> cached = lookup(similarIdsCache, "similarIds", productId);
         if (cached != null) {
-            return Mono.just(cached);
+            return similarIdsStage.hit(start, cached);
         }
-        return productWebClient.getSimilarIds(productId)
+        return similarIdsStage.time(productWebClient.getSimilarIds(productId), "miss")
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(List.of()))
+                .doOnNext(ids -> similarIdsCache.put(productId, ids))
                 .onErrorResume(CallNotPermittedException.class, e -> {
                     log.warn("Circuit breaker is OPEN for similar IDs - serving cached or empty response");
-                    return Mono.just(List.of());
+                    return DegradedResponse.fallback(Mono.just(List.of()));
                 })
-                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(List.of()))
                 .onErrorResume(e -> {
                     log.error("Error fetching similar IDs: {}", e.getMessage());
-                    return Mono.just(List.of());
+                    return DegradedResponse.fallback(Mono.just(List.of()));
                 })
-                .doOnNext(ids -> similarIdsCache.put(productId, ids));
+                .transform(fetchDetacher::detachOnCancel);
     }
 
     @Override
     public Mono<ProductDetail> findProductDetail(String productId) {
-        ProductDetail cached = productDetailCache.getIfPresent(productId);
+        long start = System.nanoTime();
+        ProductDetail cached = lookup(productDetailCache, "productDetail", productId);
         if (cached != null) {
-            return Mono.just(cached);
+            Boolean availability = lookup(availabilityCache, "availability", productId);
+            if (availability != null) {
+                return productDetailStage.hit(start, cached.withAvailability(availability));
+            }
+            if (serveStaleAvailability && cached.availability() != null) {
+                refreshInBackground(productId);
+                return productDetailStage.hit(start, cached, "stale");
+            }
         }
-        return productWebClient.getProduct(productId)
-                .map(this::toProductDetail)
+        Mono<ProductDetail> stale = Mono.justOrEmpty(cached);
+        return productDetailStage.time(load(productId), "miss")
                 .onErrorResume(CallNotPermittedException.class, e -> {
                     log.warn("Circuit breaker is OPEN for product detail - serving cached or empty response");
-                    return Mono.empty();
+                    return DegradedResponse.fallback(stale);
                 })
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.warn("Product not found: {}", productId);
@@ -73,18 +132,102 @@ public class WebClientProductRepository implements ProductRepository {
                 })
                 .onErrorResume(e -> {
                     log.error("Error fetching product detail for {}: {}", productId, e.getMessage());
-                    return Mono.empty();
+                    return DegradedResponse.fallback(stale);
                 })
+                .transform(fetchDetacher::detachOnCancel);
+    }
+
+    private Mono<ProductDetail> load(String productId) {
+        return peers.load(productId, productWebClient::getProduct)
+                .map(this::toProductDetail)
                 .doOnNext(detail -> {
+                    if (!peers.cacheLocally(productId)) {
+                        return;
+                    }
                     productDetailCache.put(productId, detail);
+                    if (detail.availability() != null) {
+                        availabilityCache.put(productId, detail.availability());
+                    }
                 });
     }
 
+    private void refreshInBackground(String productId) {
+        if (!refreshing.add(productId)) {
+            return;
+        }
+        load(productId)
+                .contextWrite(Context.of(ResilientProductWebClient.BACKGROUND, true))
+                .doFinally(__ -> refreshing.remove(productId))
+                .subscribe(null, e -> log.debug("Background refresh of product {} failed: {}", productId, e.getMessage()));
+    }
+
     @Override
     public Flux<ProductDetail> findProductDetails(List<String> productIds) {
-        return Flux.fromIterable(productIds)
-                .flatMap(this::findProductDetail, flatmapConcurrency)
-                .filter(detail -> detail.id() != null);
+        return detailsStage.time(Flux.fromIterable(productIds)
+                        .flatMap(this::findProductDetail, flatmapConcurrency)
+                        .filter(detail -> detail.id() != null), "success")
+                .doOnCancel(fetchDetacher::requestCancelled);
+    }
+
+    /**
+     * Hits are also added to the request's {@code Server-Timing} breakdown; misses only to the
+     * histogram, since the stages that follow time the rest of the request.
+     */
+    @Override
+    public Mono<List<ProductDetail>> findCachedSimilarProducts(String productId) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Optional<List<ProductDetail>> products = cachedSimilarProducts(productId, false);
+            if (products.isEmpty()) {
+                cachedResponseStage.record(start, "miss");
+                return Mono.empty();
+            }
+            return cachedResponseStage.hit(start, products.get());
+        });
+    }
+
+    /**
+     * Reads through {@code asMap()}, which neither counts in the cache statistics nor emits
+     * {@link CacheLookupEvent}s.
+     */
+    @Override
+    public Optional<List<ProductDetail>> peekCachedSimilarProducts(String productId) {
+        return cachedSimilarProducts(productId, true);
+    }
+
+    private Optional<List<ProductDetail>> cachedSimilarProducts(String productId, boolean quiet) {
+        List<String> similarIds = read(similarIdsCache, "similarIds", productId, quiet);
+        if (similarIds == null) {
+            return Optional.empty();
+        }
+        List<ProductDetail> products = new ArrayList<>(similarIds.size());
+        for (String similarId : similarIds) {
+            ProductDetail cached = read(productDetailCache, "productDetail", similarId, quiet);
+            Boolean availability = read(availabilityCache, "availability", similarId, quiet);
+            if (cached == null || availability == null) {
+                return Optional.empty();
+            }
+            if (cached.id() != null) {
+                products.add(cached.withAvailability(availability));
+            }
+        }
+        return Optional.of(products);
+    }
+
+    private static <V> @Nullable V read(Cache<String, V> cache, String cacheName, String key, boolean quiet) {
+        return quiet ? cache.asMap().get(key) : lookup(cache, cacheName, key);
+    }
+
+    /**
+     * Cache read that emits a {@link CacheLookupEvent} while a flight recording enables it.
+     */
+    private static <V> @Nullable V lookup(Cache<String, V> cache, String cacheName, String key) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        V value = cache.getIfPresent(key);
+        event.end();
+        event.record(cacheName, key, value != null);
+        return value;
     }
 
     private ProductDetail toProductDetail(ProductResponse response) {
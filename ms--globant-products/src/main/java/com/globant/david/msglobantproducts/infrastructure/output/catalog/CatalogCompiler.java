@@ -0,0 +1,109 @@
+package com.globant.david.msglobantproducts.infrastructure.output.catalog;
+
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiles a bulk catalog export into the indexed binary layout read by {@link MappedCatalog}.
+ * <p>
+ * The export is JSON Lines, one product per line:
+ * <pre>
+ * {"id":"1","name":"Shirt","price":9.99,"availability":true,"similarIds":["2","3"]}
+ * </pre>
+ * Records are streamed straight to disk; only the (hash, offset) index is kept in memory.
+ */
+public class CatalogCompiler {
+
+    private final ObjectMapper objectMapper;
+
+    public CatalogCompiler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public int compile(Path dump, Path target) throws IOException {
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        List<long[]> index = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(MappedCatalog.HEADER_BYTES);
+            // DataOutputStream counts every byte written, which gives record offsets without flushing
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+            try (InputStream in = Files.newInputStream(dump);
+                 MappingIterator<CatalogRecord> records = objectMapper.readerFor(CatalogRecord.class).readValues(in)) {
+                while (records.hasNextValue()) {
+                    CatalogRecord record = records.nextValue();
+                    if (record.id() == null || record.id().isBlank()) {
+                        continue;
+                    }
+                    byte[] id = record.id().trim().getBytes(StandardCharsets.UTF_8);
+                    index.add(new long[]{MappedCatalog.hash(id), MappedCatalog.HEADER_BYTES + (long) out.size()});
+                    writeRecord(out, id, record);
+                }
+            }
+
+            long indexOffset = MappedCatalog.HEADER_BYTES + (long) out.size();
+            index.sort(Comparator.comparingLong(entry -> entry[0]));
+            for (long[] entry : index) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+            }
+            out.flush();
+
+            channel.position(0);
+            channel.write(MappedCatalog.header(index.size(), indexOffset));
+            channel.force(true);
+        }
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return index.size();
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] id, CatalogRecord record) throws IOException {
+        writeBytes(out, id);
+        writeString(out, record.name() != null ? record.name().trim() : "");
+        writeString(out, record.price() != null ? record.price().toPlainString() : "");
+        out.writeByte(record.availability() == null ? 2 : record.availability() ? 1 : 0);
+        List<String> similarIds = record.similarIds() != null ? record.similarIds() : List.of();
+        out.writeShort(similarIds.size());
+        for (String similarId : similarIds) {
+            writeString(out, similarId);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes.length > 0xffff) {
+            throw new IOException("Catalog field exceeds 65535 bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    public record CatalogRecord(
+            String id,
+            String name,
+            BigDecimal price,
+            Boolean availability,
+            List<String> similarIds
+    ) {}
+}
@@ -0,0 +1,90 @@
+package com.globant.david.msglobantproducts.infrastructure.output.catalog;
+
+import com.globant.david.msglobantproducts.application.DegradedResponse;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Serves from the upstream-backed repository and falls back to the offline catalog whenever
+ * the upstream path yields nothing (errors, open circuit or missing products).
+ * <p>
+ * A catalog answer is a complete, consistent snapshot, so it is not a degraded response: an
+ * upstream failure it covers for does not mark the request's {@link DegradedResponse}, and the
+ * composition is cached like one served in {@code offline} mode. Upstream answers that are
+ * themselves degraded (e.g. stale details) keep their mark, as do failures the catalog cannot fill.
+ */
+public class CatalogFallbackProductRepository implements ProductRepository {
+
+    private final ProductRepository upstream;
+    private final ProductRepository catalog;
+    private final int flatmapConcurrency;
+
+    public CatalogFallbackProductRepository(ProductRepository upstream, ProductRepository catalog,
+                                            int flatmapConcurrency) {
+        this.upstream = upstream;
+        this.catalog = catalog;
+        this.flatmapConcurrency = flatmapConcurrency;
+    }
+
+    @Override
+    public Mono<List<String>> findSimilarIds(String productId) {
+        return withCatalogFallback(upstream.findSimilarIds(productId).filter(ids -> !ids.isEmpty()),
+                () -> catalog.findSimilarIds(productId).filter(ids -> !ids.isEmpty()))
+                .defaultIfEmpty(List.of());
+    }
+
+    @Override
+    public Mono<ProductDetail> findProductDetail(String productId) {
+        return withCatalogFallback(upstream.findProductDetail(productId),
+                () -> catalog.findProductDetail(productId));
+    }
+
+    /**
+     * Runs the upstream call against its own {@link DegradedResponse} and copies its mark to
+     * the request's only when the catalog does not answer in its place.
+     */
+    private <T> Mono<T> withCatalogFallback(Mono<T> upstreamCall, Supplier<Mono<T>> catalogCall) {
+        return Mono.deferContextual(context -> {
+            DegradedResponse request = context.getOrDefault(DegradedResponse.CONTEXT_KEY, null);
+            if (request == null) {
+                return upstreamCall.switchIfEmpty(Mono.defer(catalogCall));
+            }
+            DegradedResponse attempt = new DegradedResponse();
+            Runnable propagate = () -> {
+                if (attempt.isDegraded()) {
+                    request.markDegraded();
+                }
+            };
+            return upstreamCall
+                    .contextWrite(Context.of(DegradedResponse.CONTEXT_KEY, attempt))
+                    .doOnNext(__ -> propagate.run())
+                    .switchIfEmpty(Mono.defer(() -> catalogCall.get()
+                            .switchIfEmpty(Mono.fromRunnable(propagate))));
+        });
+    }
+
+    @Override
+    public Flux<ProductDetail> findProductDetails(List<String> productIds) {
+        return Flux.fromIterable(productIds)
+                .flatMap(this::findProductDetail, flatmapConcurrency)
+                .filter(detail -> detail.id() != null);
+    }
+
+    // An empty cached answer may be a cached upstream failure, which the catalog could fill
+    @Override
+    public Mono<List<ProductDetail>> findCachedSimilarProducts(String productId) {
+        return upstream.findCachedSimilarProducts(productId).filter(products -> !products.isEmpty());
+    }
+
+    @Override
+    public Optional<List<ProductDetail>> peekCachedSimilarProducts(String productId) {
+        return upstream.peekCachedSimilarProducts(productId).filter(products -> !products.isEmpty());
+    }
+}
@@ -0,0 +1,212 @@
+package com.globant.david.msglobantproducts.infrastructure.output.catalog;
+
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view over a compiled catalog file mapped into memory.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * header  : int magic | short version | int count | long indexOffset
+ * records : short idLen, id | short nameLen, name | short priceLen, price (empty when null)
+ *           | byte availability (0 false, 1 true, 2 null) | short similarCount, (short len, id)*
+ * index   : count x (long idHash | long recordOffset), sorted by hash
+ * </pre>
+ * Lookups binary-search the index and confirm the id against the record, so hash
+ * collisions are resolved without extra structures. Only the mapping itself is held open.
+ */
+public final class MappedCatalog implements AutoCloseable {
+
+    static final int MAGIC = 0x50434154; // "PCAT"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES + Long.BYTES;
+    static final int INDEX_ENTRY_BYTES = Long.BYTES * 2;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int indexOffset;
+
+    private MappedCatalog(Path file, FileChannel channel, MappedByteBuffer buffer, int count, int indexOffset) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.count = count;
+        this.indexOffset = indexOffset;
+    }
+
+    public static MappedCatalog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog file exceeds 2GB mapping limit: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(Integer.BYTES) != VERSION) {
+                throw new IOException("Not a compiled catalog file: " + file);
+            }
+            int count = buffer.getInt(Integer.BYTES + Short.BYTES);
+            long indexOffset = buffer.getLong(Integer.BYTES + Short.BYTES + Integer.BYTES);
+            if (indexOffset + (long) count * INDEX_ENTRY_BYTES != channel.size()) {
+                throw new IOException("Truncated catalog file: " + file);
+            }
+            return new MappedCatalog(file, channel, buffer, count, (int) indexOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public ProductDetail findProduct(String productId) {
+        int offset = findRecord(productId);
+        if (offset < 0) {
+            return null;
+        }
+        RecordReader reader = new RecordReader(offset);
+        String id = reader.readString();
+        String name = reader.readString();
+        String price = reader.readString();
+        byte availability = buffer.get(reader.position++);
+        return new ProductDetail(
+                id,
+                name.isEmpty() ? null : name,
+                price.isEmpty() ? null : new BigDecimal(price),
+                availability == 2 ? null : availability == 1);
+    }
+
+    public List<String> findSimilarIds(String productId) {
+        int offset = findRecord(productId);
+        if (offset < 0) {
+            return null;
+        }
+        RecordReader reader = new RecordReader(offset);
+        reader.skipString();
+        reader.skipString();
+        reader.skipString();
+        reader.position++;
+        int similarCount = reader.readShort();
+        List<String> ids = new ArrayList<>(similarCount);
+        for (int i = 0; i < similarCount; i++) {
+            ids.add(reader.readString());
+        }
+        return List.copyOf(ids);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static long hash(byte[] bytes) {
+        // 64-bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static ByteBuffer header(int count, long indexOffset) {
+        return ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(count)
+                .putLong(indexOffset)
+                .flip();
+    }
+
+    private int findRecord(String productId) {
+        byte[] key = productId.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midHash = indexHash(mid);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else if (midHash > hash) {
+                high = mid - 1;
+            } else {
+                int first = mid;
+                while (first > 0 && indexHash(first - 1) == hash) {
+                    first--;
+                }
+                for (int i = first; i < count && indexHash(i) == hash; i++) {
+                    int offset = (int) buffer.getLong(indexOffset + i * INDEX_ENTRY_BYTES + Long.BYTES);
+                    if (idMatches(offset, key)) {
+                        return offset;
+                    }
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private long indexHash(int slot) {
+        return buffer.getLong(indexOffset + slot * INDEX_ENTRY_BYTES);
+    }
+
+    private boolean idMatches(int offset, byte[] key) {
+        int length = buffer.getShort(offset) & 0xffff;
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + Short.BYTES + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class RecordReader {
+
+        private int position;
+
+        RecordReader(int position) {
+            this.position = position;
+        }
+
+        int readShort() {
+            int value = buffer.getShort(position) & 0xffff;
+            position += Short.BYTES;
+            return value;
+        }
+
+        String readString() {
+            int length = readShort();
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void skipString() {
+            int length = readShort();
+            position += length;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.globant.david.msglobantproducts.infrastructure.output.catalog;
+
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link ProductRepository} answering entirely from a bulk catalog export, with no upstream calls.
+ * <p>
+ * The export ({@code dumpFile}) is compiled into an indexed binary file and memory-mapped. A
+ * background watcher recompiles and atomically swaps the catalog when a {@code <dumpFile>.ready}
+ * marker is created next to the export, and then deletes the marker; requests in flight keep
+ * reading the previous mapping. Changes to the export itself are ignored, since a dump being
+ * copied in place fires them while it is only partly written and a truncated line-oriented
+ * export would compile into part of the catalog.
+ */
+public class MappedCatalogProductRepository implements ProductRepository, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedCatalogProductRepository.class);
+
+    private final CatalogCompiler compiler;
+    private final Path dumpFile;
+    private final Path compiledFile;
+    private final Path readyMarker;
+    private final AtomicReference<MappedCatalog> catalog = new AtomicReference<>();
+    private volatile WatchService watchService;
+
+    public MappedCatalogProductRepository(CatalogCompiler compiler, Path dumpFile, boolean watchForChanges) {
+        this.compiler = compiler;
+        this.dumpFile = dumpFile.toAbsolutePath();
+        this.compiledFile = this.dumpFile.resolveSibling(this.dumpFile.getFileName() + ".pcat");
+        this.readyMarker = this.dumpFile.resolveSibling(this.dumpFile.getFileName() + ".ready");
+        reload();
+        if (watchForChanges) {
+            startWatcher();
+        }
+    }
+
+    @Override
+    public Mono<List<String>> findSimilarIds(String productId) {
+        return Mono.fromSupplier(() -> {
+            MappedCatalog current = catalog.get();
+            List<String> ids = current != null ? current.findSimilarIds(productId) : null;
+            return ids != null ? ids : List.<String>of();
+        });
+    }
+
+    @Override
+    public Mono<ProductDetail> findProductDetail(String productId) {
+        return Mono.fromSupplier(() -> {
+            MappedCatalog current = catalog.get();
+            return current != null ? current.findProduct(productId) : null;
+        });
+    }
+
+    @Override
+    public Flux<ProductDetail> findProductDetails(List<String> productIds) {
+        return Flux.defer(() -> {
+            MappedCatalog current = catalog.get();
+            if (current == null) {
+                return Flux.empty();
+            }
+            return Flux.fromIterable(productIds)
+                    .mapNotNull(current::findProduct)
+                    .filter(detail -> detail.id() != null);
+        });
+    }
+
+    @Override
+    public Mono<List<ProductDetail>> findCachedSimilarProducts(String productId) {
+        return Mono.fromSupplier(() -> similarProducts(productId));
+    }
+
+    @Override
+    public Optional<List<ProductDetail>> peekCachedSimilarProducts(String productId) {
+        return Optional.of(similarProducts(productId));
+    }
+
+    private List<ProductDetail> similarProducts(String productId) {
+        MappedCatalog current = catalog.get();
+        if (current == null) {
+            return List.of();
+        }
+        List<String> ids = current.findSimilarIds(productId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<ProductDetail> products = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ProductDetail detail = current.findProduct(id);
+            if (detail != null && detail.id() != null) {
+                products.add(detail);
+            }
+        }
+        return products;
+    }
+
+    public synchronized boolean reload() {
+        if (!Files.exists(dumpFile)) {
+            log.warn("Catalog dump {} not found, offline catalog is empty", dumpFile);
+            return false;
+        }
+        try {
+            int count = compiler.compile(dumpFile, compiledFile);
+            MappedCatalog previous = catalog.getAndSet(MappedCatalog.open(compiledFile));
+            closeQuietly(previous);
+            log.info("Offline catalog loaded from {}: {} products", dumpFile, count);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load catalog dump {}: {}", dumpFile, e.getMessage());
+            return false;
+        }
+    }
+
+    public int size() {
+        MappedCatalog current = catalog.get();
+        return current != null ? current.size() : 0;
+    }
+
+    @Override
+    public void close() {
+        WatchService watcher = watchService;
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                log.warn("Error closing catalog watcher: {}", e.getMessage());
+            }
+        }
+        closeQuietly(catalog.getAndSet(null));
+    }
+
+    private void startWatcher() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dumpFile.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.error("Unable to watch {} for catalog changes: {}", dumpFile.getParent(), e.getMessage());
+            return;
+        }
+        Thread watcher = new Thread(this::watch, "catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean dumpReady = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (readyMarker.getFileName().equals(event.context())) {
+                        dumpReady = true;
+                    }
+                }
+                if (dumpReady && Files.exists(readyMarker)) {
+                    reload();
+                    deleteMarker();
+                }
+                if (!key.reset()) {
+                    log.warn("Catalog directory {} is no longer watchable", dumpFile.getParent());
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Repository closed
+        }
+    }
+
+    private void deleteMarker() {
+        try {
+            Files.deleteIfExists(readyMarker);
+        } catch (IOException e) {
+            log.warn("Unable to delete catalog marker {}: {}", readyMarker, e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(MappedCatalog catalog) {
+        if (catalog != null) {
+            try {
+                catalog.close();
+            } catch (IOException e) {
+                log.warn("Error closing catalog {}: {}", catalog.file(), e.getMessage());
+            }
+        }
+    }
+}
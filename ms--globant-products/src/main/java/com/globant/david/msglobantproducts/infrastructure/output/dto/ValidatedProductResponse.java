@@ -0,0 +1,8 @@
+package com.globant.david.msglobantproducts.infrastructure.output.dto;
+
+/**
+ * A product response together with the validators the upstream sent for it, used to
+ * revalidate with a conditional request instead of downloading the product again.
+ */
+public record ValidatedProductResponse(ProductResponse response, String etag, String lastModified) {
+}
@@ -0,0 +1,166 @@
+package com.globant.david.msglobantproducts.infrastructure.peer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globant.david.msglobantproducts.infrastructure.output.ProductDetailPeers;
+import com.globant.david.msglobantproducts.infrastructure.output.ResilientProductWebClient;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Groupcache-style peers from a static list: each product is owned by one instance, picked
+ * with a {@link ConsistentHashRing} over the peer URLs.
+ * <p>
+ * A product owned by a peer is asked to it at {@code GET /internal/peers/products/{id}}, which
+ * answers from its caches or loads it from the upstream. Products owned by this instance are
+ * loaded from the upstream directly. Concurrent loads of the same product, local or from
+ * peers, share one call, which runs in the context of the first of them; background loads
+ * ({@link ResilientProductWebClient#BACKGROUND}) and foreground ones never share a call, so
+ * each keeps its own circuit breaker. Products owned by a peer are only kept locally once they are hot:
+ * loaded {@code hotThreshold} times within {@code hotWindow}. When the owner does not answer
+ * within {@code timeout} the product is loaded from the upstream.
+ */
+public class ConsistentHashProductDetailPeers implements ProductDetailPeers {
+
+    /**
+     * Reactor context key set on loads requested by a peer, which are always served locally
+     * so that peers with different lists cannot bounce a request between them.
+     */
+    public static final String FORWARDED = ConsistentHashProductDetailPeers.class.getName() + ".FORWARDED";
+
+    static final String PEER_PATH = "/internal/peers/products/{id}";
+
+    private static final Logger log = LoggerFactory.getLogger(ConsistentHashProductDetailPeers.class);
+
+    private final String self;
+    private final ConsistentHashRing ring;
+    private final Map<String, WebClient> peerClients;
+    private final Duration timeout;
+    private final int hotThreshold;
+    private final Cache<String, AtomicInteger> remoteLoads;
+    private final ConcurrentMap<FlightKey, Mono<ProductResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter ownedLoads;
+    private final Counter peerLoads;
+    private final Counter fallbackLoads;
+    private final Counter coalescedLoads;
+    private final Counter hotKeys;
+
+    public ConsistentHashProductDetailPeers(WebClient.Builder webClientBuilder, String self, List<String> peers,
+                                            int virtualNodes, Duration timeout, int hotThreshold,
+                                            Duration hotWindow, MeterRegistry meterRegistry) {
+        this.self = normalize(self);
+        Set<String> nodes = new LinkedHashSet<>();
+        nodes.add(this.self);
+        peers.stream().filter(peer -> !peer.isBlank()).map(ConsistentHashProductDetailPeers::normalize).forEach(nodes::add);
+        this.ring = new ConsistentHashRing(List.copyOf(nodes), virtualNodes);
+        this.peerClients = nodes.stream()
+                .filter(peer -> !peer.equals(this.self))
+                .collect(Collectors.toUnmodifiableMap(Function.identity(),
+                        peer -> webClientBuilder.clone().baseUrl(peer).build()));
+        this.timeout = timeout;
+        this.hotThreshold = hotThreshold;
+        this.remoteLoads = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(hotWindow)
+                .build();
+        this.ownedLoads = Counter.builder("peer.cache.loads").tag("source", "owned").register(meterRegistry);
+        this.peerLoads = Counter.builder("peer.cache.loads").tag("source", "peer").register(meterRegistry);
+        this.fallbackLoads = Counter.builder("peer.cache.loads").tag("source", "fallback").register(meterRegistry);
+        this.coalescedLoads = Counter.builder("peer.cache.coalesced").register(meterRegistry);
+        this.hotKeys = Counter.builder("peer.cache.hot-keys").register(meterRegistry);
+        log.info("Peer cache on {} with peers {}", this.self, peerClients.keySet());
+    }
+
+    @Override
+    public Mono<ProductResponse> load(String productId, Function<String, Mono<ProductResponse>> upstream) {
+        return Mono.deferContextual(context -> {
+            String owner = context.hasKey(FORWARDED) ? self : ring.ownerOf(productId);
+            FlightKey key = new FlightKey(productId, context.hasKey(ResilientProductWebClient.BACKGROUND));
+            return singleFlight(key, owner.equals(self)
+                    ? () -> fromUpstream(productId, upstream)
+                    : () -> fromPeer(owner, productId, upstream));
+        });
+    }
+
+    @Override
+    public boolean cacheLocally(String productId) {
+        if (ring.ownerOf(productId).equals(self)) {
+            return true;
+        }
+        int loads = remoteLoads.get(productId, __ -> new AtomicInteger()).incrementAndGet();
+        if (loads == hotThreshold) {
+            hotKeys.increment();
+        }
+        return loads >= hotThreshold;
+    }
+
+    String ownerOf(String productId) {
+        return ring.ownerOf(productId);
+    }
+
+    private Mono<ProductResponse> fromUpstream(String productId, Function<String, Mono<ProductResponse>> upstream) {
+        return upstream.apply(productId).doOnSubscribe(__ -> ownedLoads.increment());
+    }
+
+    /**
+     * A 404 from the owner is the answer; any other failure falls back to the upstream.
+     */
+    private Mono<ProductResponse> fromPeer(String owner, String productId,
+                                           Function<String, Mono<ProductResponse>> upstream) {
+        return peerClients.get(owner).get()
+                .uri(PEER_PATH, productId)
+                .retrieve()
+                .bodyToMono(ProductResponse.class)
+                .timeout(timeout)
+                .doOnNext(__ -> peerLoads.increment())
+                .onErrorResume(e -> !(e instanceof WebClientResponseException.NotFound), e -> {
+                    log.debug("Peer {} did not answer for product {}: {}", owner, productId, e.getMessage());
+                    fallbackLoads.increment();
+                    return upstream.apply(productId);
+                });
+    }
+
+    /**
+     * A flight only unregisters itself, so a shared flight subscribed again after it ended,
+     * which loads once more, cannot remove a newer flight registered for the same key.
+     */
+    Mono<ProductResponse> singleFlight(FlightKey key, Supplier<Mono<ProductResponse>> load) {
+        AtomicReference<Mono<ProductResponse>> started = new AtomicReference<>();
+        Mono<ProductResponse> flight = inFlight.computeIfAbsent(key, __ -> {
+            started.set(load.get()
+                    .doFinally(signal -> inFlight.remove(key, started.get()))
+                    .share());
+            return started.get();
+        });
+        if (flight != started.get()) {
+            coalescedLoads.increment();
+        }
+        return flight;
+    }
+
+    record FlightKey(String productId, boolean background) {}
+
+    private static String normalize(String url) {
+        String trimmed = url.strip();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
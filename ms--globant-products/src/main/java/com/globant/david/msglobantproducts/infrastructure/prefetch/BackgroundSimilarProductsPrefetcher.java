@@ -0,0 +1,86 @@
+package com.globant.david.msglobantproducts.infrastructure.prefetch;
+
+import com.globant.david.msglobantproducts.application.SimilarProductsPrefetcher;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.output.ResilientProductWebClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.util.context.Context;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Prefetches the second-degree neighbourhood of a response: for each returned product, its
+ * own similar ids and their details, so the likely next {@code /similar} call is a cache hit.
+ * <p>
+ * Each neighbour is walked sequentially under one permit of the prefetch budget, so at most
+ * {@code maxInFlight} upstream calls are spent on prefetching at any time. Work that does not
+ * get a permit is dropped rather than queued, and every step yields (stops) as soon as the
+ * foreground circuit breaker leaves {@code CLOSED} or foreground upstream concurrency reaches
+ * the pressure threshold. Prefetch calls are marked {@link ResilientProductWebClient#BACKGROUND},
+ * so their failures are kept out of the foreground breaker.
+ */
+public class BackgroundSimilarProductsPrefetcher implements SimilarProductsPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(BackgroundSimilarProductsPrefetcher.class);
+
+    private final ProductRepository productRepository;
+    private final ResilientProductWebClient productWebClient;
+    private final Semaphore budget;
+    private final int maxNeighbours;
+    private final int pressureThreshold;
+    private final Counter started;
+    private final Counter rejected;
+    private final Counter yielded;
+
+    public BackgroundSimilarProductsPrefetcher(
+            ProductRepository productRepository,
+            ResilientProductWebClient productWebClient,
+            MeterRegistry meterRegistry,
+            int maxInFlight,
+            int maxNeighbours,
+            int pressureThreshold) {
+        this.productRepository = productRepository;
+        this.productWebClient = productWebClient;
+        this.budget = new Semaphore(maxInFlight);
+        this.maxNeighbours = maxNeighbours;
+        this.pressureThreshold = pressureThreshold;
+        this.started = Counter.builder("prefetch.neighbours").tag("result", "started").register(meterRegistry);
+        this.rejected = Counter.builder("prefetch.neighbours").tag("result", "rejected").register(meterRegistry);
+        this.yielded = Counter.builder("prefetch.neighbours").tag("result", "yielded").register(meterRegistry);
+    }
+
+    @Override
+    public void prefetchNeighbours(List<String> similarIds) {
+        for (String productId : similarIds.subList(0, Math.min(similarIds.size(), maxNeighbours))) {
+            if (underPressure()) {
+                yielded.increment();
+                return;
+            }
+            if (!budget.tryAcquire()) {
+                rejected.increment();
+                return;
+            }
+            started.increment();
+            productRepository.findSimilarIds(productId)
+                    .flatMapMany(neighbours -> Flux.fromIterable(neighbours)
+                            .takeWhile(__ -> !underPressure())
+                            .concatMap(productRepository::findProductDetail))
+                    .doFinally(__ -> budget.release())
+                    .contextWrite(Context.of(ResilientProductWebClient.BACKGROUND, true))
+                    .subscribe(null, e -> log.debug("Prefetch of {} failed: {}", productId, e.getMessage()));
+        }
+    }
+
+    public int availablePermits() {
+        return budget.availablePermits();
+    }
+
+    private boolean underPressure() {
+        return !productWebClient.isCircuitClosed() || productWebClient.inFlightRequests() >= pressureThreshold;
+    }
+}
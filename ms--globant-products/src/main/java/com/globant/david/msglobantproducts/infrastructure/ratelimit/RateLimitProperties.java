@@ -0,0 +1,47 @@
+package com.globant.david.msglobantproducts.infrastructure.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-client rate limits. Clients are identified by {@code client-header}, or by remote
+ * address when the header is missing, and get the limits of the class listing their id,
+ * or of the {@code default} class otherwise. Rates and bursts must be positive, so every refused
+ * client gets a bounded {@code Retry-After}; a zero rate fails at startup instead of blocking a class.
+ */
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("X-Client-Id") String clientHeader,
+        @DefaultValue("16") int stripes,
+        @DefaultValue("10000") int maxKeys,
+        @DefaultValue("5m") Duration idleTimeout,
+        @DefaultValue("50") int defaultRate,
+        @DefaultValue("100") int defaultBurst,
+        Map<String, ClientClass> classes) {
+
+    public static final String DEFAULT_CLASS = "default";
+
+    public RateLimitProperties {
+        classes = classes != null ? Map.copyOf(classes) : Map.of();
+        requirePositive(DEFAULT_CLASS, defaultRate, defaultBurst);
+    }
+
+    public record ClientClass(int rate, int burst, @DefaultValue List<String> clients) {
+
+        public ClientClass {
+            requirePositive("class", rate, burst);
+        }
+    }
+
+    private static void requirePositive(String name, int rate, int burst) {
+        if (rate <= 0 || burst <= 0) {
+            throw new IllegalArgumentException(
+                    "Rate limit " + name + " needs a positive rate and burst, got rate=" + rate + ", burst=" + burst);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.globant.david.msglobantproducts.infrastructure.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by client, striped to keep contention and memory bounded.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} packing the last refill time (milliseconds since
+ * the table was created, upper 40 bits) and the available tokens (in thousandths of a token,
+ * lower 24 bits), so acquiring is one CAS loop without locks. Each stripe holds at most
+ * {@code maxKeys / stripes} buckets: when full it drops buckets idle for longer than
+ * {@code idleTimeout}, and if that is not enough new clients share the stripe's overflow
+ * bucket until room frees up. {@link #evictIdle()} is also meant to run periodically, so idle
+ * buckets do not wait for a full stripe to be dropped.
+ */
+public class TokenBucketTable {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI_TOKENS = 1000;
+
+    /**
+     * Largest burst a bucket can hold with the packed layout.
+     */
+    public static final int MAX_BURST = (int) (TOKEN_MASK / MILLI_TOKENS);
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long idleTimeoutMillis;
+    private final LongSupplier clock;
+    private final long epoch;
+
+    public TokenBucketTable(int stripes, int maxKeys, Duration idleTimeout) {
+        this(stripes, maxKeys, idleTimeout, System::currentTimeMillis);
+    }
+
+    TokenBucketTable(int stripes, int maxKeys, Duration idleTimeout, LongSupplier clock) {
+        int stripeCount = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[stripeCount];
+        int capacity = Math.max(1, maxKeys / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+        this.mask = stripeCount - 1;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+    }
+
+    /**
+     * Takes one token from the bucket of {@code key}, refilling it at {@code ratePerSecond}
+     * up to {@code burst} tokens.
+     *
+     * @return {@code true} if a token was available
+     */
+    public boolean tryAcquire(String key, int ratePerSecond, int burst) {
+        return acquire(key, ratePerSecond, burst) == 0;
+    }
+
+    /**
+     * Like {@link #tryAcquire}, but tells a refused caller how long to wait.
+     *
+     * @return {@code 0} if a token was taken, otherwise the milliseconds until the bucket
+     *         holds a whole token again
+     */
+    public long acquire(String key, int ratePerSecond, int burst) {
+        if (burst > MAX_BURST) {
+            throw new IllegalArgumentException("Burst " + burst + " exceeds " + MAX_BURST);
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + ratePerSecond);
+        }
+        long now = clock.getAsLong() - epoch;
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & mask];
+        return tryConsume(stripe.bucket(key, now, burst * MILLI_TOKENS), now, ratePerSecond, burst * MILLI_TOKENS);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    public void evictIdle() {
+        long now = clock.getAsLong() - epoch;
+        for (Stripe stripe : stripes) {
+            stripe.evictIdle(now);
+        }
+    }
+
+    private static long tryConsume(AtomicLong bucket, long now, long ratePerSecond, long capacity) {
+        while (true) {
+            long state = bucket.get();
+            long last = state >>> TOKEN_BITS;
+            long tokens = state & TOKEN_MASK;
+            // One token per second per unit of rate is one milli-token per millisecond
+            long elapsed = Math.max(0, now - last);
+            long refilled = Math.min(capacity, tokens + elapsed * ratePerSecond);
+            boolean allowed = refilled >= MILLI_TOKENS;
+            long remaining = allowed ? refilled - MILLI_TOKENS : refilled;
+            if (bucket.compareAndSet(state, pack(Math.max(now, last), remaining))) {
+                if (allowed) {
+                    return 0;
+                }
+                return Math.ceilDiv(MILLI_TOKENS - remaining, ratePerSecond);
+            }
+        }
+    }
+
+    private static long pack(long millis, long milliTokens) {
+        return (millis << TOKEN_BITS) | milliTokens;
+    }
+
+    private final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(pack(0, TOKEN_MASK));
+        private final int capacity;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Existing clients always get their own bucket; only a new key can trigger eviction or
+         * fall back to the overflow bucket.
+         */
+        AtomicLong bucket(String key, long now, long initialTokens) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= capacity) {
+                evictIdle(now);
+                if (buckets.size() >= capacity) {
+                    return overflow;
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(pack(now, initialTokens)));
+        }
+
+        void evictIdle(long now) {
+            buckets.values().removeIf(bucket -> now - (bucket.get() >>> TOKEN_BITS) > idleTimeoutMillis);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.globant.david.msglobantproducts.infrastructure.warmup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.globant.david.msglobantproducts.application.AdmissionLane;
+import com.globant.david.msglobantproducts.application.GetSimilarProductsUseCase;
+import com.globant.david.msglobantproducts.application.SimilarProductsPrefetcher;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.infrastructure.input.ProductController;
+import com.globant.david.msglobantproducts.infrastructure.input.SimilarProductsResponseComposer;
+import com.globant.david.msglobantproducts.infrastructure.output.ProductDetailPeers;
+import com.globant.david.msglobantproducts.infrastructure.output.ResilientProductWebClient;
+import com.globant.david.msglobantproducts.infrastructure.output.UpstreamEndpoints;
+import com.globant.david.msglobantproducts.infrastructure.output.UpstreamFetchDetacher;
+import com.globant.david.msglobantproducts.infrastructure.output.WebClientProductRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Runs synthetic {@code /similar} traffic through the request path before the service reports
+ * ready, so the first real requests hit JIT-compiled code instead of the interpreter.
+ * <p>
+ * The traffic goes through {@link ProductController}, {@link GetSimilarProductsUseCase},
+ * {@link WebClientProductRepository} and the Netty {@code WebClient} to an in-process stub
+ * upstream on the loopback interface, and through JSON encoding and compression. Every
+ * stateful piece (caches, circuit breaker, retry, meters) is a private instance thrown away
+ * afterwards, so the real caches and resilience state never see the synthetic traffic.
+ * Keys cycle over more products than the private caches hold, exercising hit and miss paths.
+ */
+public class JitWarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JitWarmupRunner.class);
+    private static final int PRODUCTS = 1000;
+    private static final int SIMILAR_PER_PRODUCT = 5;
+    private static final List<String> GZIP = List.of("gzip");
+
+    private final WebClient.Builder webClientBuilder;
+    private final JsonMapper jsonMapper;
+    private final boolean compressionEnabled;
+    private final DataSize minResponseSize;
+    private final int iterations;
+    private final int concurrency;
+    private final Duration timeout;
+
+    public JitWarmupRunner(WebClient.Builder webClientBuilder, JsonMapper jsonMapper,
+                           boolean compressionEnabled, DataSize minResponseSize,
+                           int iterations, int concurrency, Duration timeout) {
+        this.webClientBuilder = webClientBuilder;
+        this.jsonMapper = jsonMapper;
+        this.compressionEnabled = compressionEnabled;
+        this.minResponseSize = minResponseSize;
+        this.iterations = iterations;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Long served = warmUp()
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("JIT warm-up stopped: {}", e.getMessage());
+                    return Mono.just(0L);
+                })
+                .block();
+        log.info("JIT warm-up: {} of {} synthetic requests served in {} ms",
+                served, iterations, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    Mono<Long> warmUp() {
+        return Mono.usingWhen(
+                Mono.fromCallable(this::startStubUpstream),
+                stub -> {
+                    ProductController controller = controller("http://127.0.0.1:" + stub.port());
+                    return Flux.range(0, iterations)
+                            .flatMap(i -> controller.getSimilarProducts(
+                                            String.valueOf(i % PRODUCTS), null, i % 2 == 0 ? GZIP : null, i % 4 == 0 ? "true" : null)
+                                    .filter(response -> response.getStatusCode().is2xxSuccessful()), concurrency)
+                            .count();
+                },
+                stub -> {
+                    stub.dispose();
+                    return stub.onDispose();
+                });
+    }
+
+    private ProductController controller(String stubUrl) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ResilientProductWebClient client = new ResilientProductWebClient(
+                new UpstreamEndpoints(webClientBuilder, List.of(stubUrl), UpstreamEndpoints.OutlierEjection.DEFAULTS,
+                        meterRegistry),
+                CircuitBreakerRegistry.ofDefaults(), RetryRegistry.ofDefaults(),
+                Caffeine.newBuilder().maximumSize(PRODUCTS / 4).build(), meterRegistry);
+        WebClientProductRepository repository = new WebClientProductRepository(client, ProductDetailPeers.NONE,
+                Caffeine.newBuilder().maximumSize(PRODUCTS / 4).build(),
+                Caffeine.newBuilder().maximumSize(PRODUCTS / 4).build(),
+                Caffeine.newBuilder().maximumSize(PRODUCTS / 4).build(),
+                new UpstreamFetchDetacher(meterRegistry, false, 0), meterRegistry, concurrency, false);
+        GetSimilarProductsUseCase useCase = new GetSimilarProductsUseCase(repository,
+                SimilarProductsPrefetcher.NONE, new AdmissionLane("warmup", concurrency, iterations, timeout));
+        Cache<String, ComposedSimilarProducts> similarProductsCache = Caffeine.newBuilder()
+                .maximumSize(PRODUCTS / 10)
+                .expireAfter(Expiry.<String, ComposedSimilarProducts>writing((key, value) -> Duration.ofMinutes(1)))
+                .build();
+        return new ProductController(useCase, similarProductsCache, new SimilarProductsResponseComposer(
+                jsonMapper, similarProductsCache, compressionEnabled, minResponseSize, meterRegistry), true, Duration.ofSeconds(1));
+    }
+
+    private DisposableServer startStubUpstream() {
+        return HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/product/{id}/similarids", (request, response) -> response
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .sendString(Mono.fromSupplier(() -> similarIds(request.param("id")))))
+                        .get("/product/{id}", (request, response) -> response
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .header(HttpHeaders.ETAG, "\"warmup\"")
+                                .sendString(Mono.fromSupplier(() -> product(request.param("id"))))))
+                .bindNow();
+    }
+
+    private static String similarIds(String id) {
+        int base = Integer.parseInt(id);
+        return IntStream.rangeClosed(1, SIMILAR_PER_PRODUCT)
+                .mapToObj(offset -> "\"" + (base + offset) % PRODUCTS + "\"")
+                .toList()
+                .toString();
+    }
+
+    private static String product(String id) {
+        return """
+                {"id":"%s","name":"Warm-up product %s","price":%s.99,"availability":%s}"""
+                .formatted(id, id, id, Integer.parseInt(id) % 3 != 0);
+    }
+}
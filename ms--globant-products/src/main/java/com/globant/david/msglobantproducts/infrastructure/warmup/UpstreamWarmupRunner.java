@@ -0,0 +1,88 @@
+package com.globant.david.msglobantproducts.infrastructure.warmup;
+
+import com.globant.david.msglobantproducts.infrastructure.output.WebClientProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Warms the upstream path before the service reports ready.
+ * <p>
+ * Application runners complete before Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC},
+ * so while this runs the readiness probe stays {@code OUT_OF_SERVICE}. It opens
+ * {@code connections} keep-alive connections at once to each upstream endpoint through the
+ * shared pool, then
+ * loads the similar products of the {@code hot-keys} through the repository, filling the caches
+ * as a request would. The warm-up never fails startup: errors and the {@code timeout} end it early.
+ */
+public class UpstreamWarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamWarmupRunner.class);
+
+    private final List<WebClient> webClients;
+    private final WebClientProductRepository productRepository;
+    private final int connections;
+    private final List<String> hotKeys;
+    private final Duration timeout;
+
+    public UpstreamWarmupRunner(WebClient.Builder webClientBuilder, List<String> baseUrls,
+                                WebClientProductRepository productRepository,
+                                int connections, List<String> hotKeys, Duration timeout) {
+        this.webClients = baseUrls.stream()
+                .map(baseUrl -> webClientBuilder.clone().baseUrl(baseUrl).build())
+                .toList();
+        this.productRepository = productRepository;
+        this.connections = connections;
+        this.hotKeys = hotKeys;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Long opened = openConnections()
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Upstream connection warm-up stopped: {}", e.getMessage());
+                    return Mono.just(0L);
+                })
+                .block();
+        Long preloaded = preloadHotKeys()
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Hot key preload stopped: {}", e.getMessage());
+                    return Mono.just(0L);
+                })
+                .block();
+        log.info("Upstream warm-up: {} connections, {} product details preloaded in {} ms",
+                opened, preloaded, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * The requests overlap, so the pool has to open a connection for each. Any status will do:
+     * only the connection matters, and bypassing the circuit breaker keeps its stats clean.
+     */
+    Mono<Long> openConnections() {
+        return Flux.fromIterable(webClients)
+                .flatMap(webClient -> Flux.range(0, connections)
+                        .flatMap(i -> webClient.head().uri("/")
+                                .exchangeToMono(response -> response.releaseBody().thenReturn(1))
+                                .onErrorResume(e -> Mono.empty()), Math.max(connections, 1)))
+                .count();
+    }
+
+    Mono<Long> preloadHotKeys() {
+        return Flux.fromIterable(hotKeys)
+                .concatMap(id -> productRepository.findSimilarIds(id)
+                        .flatMapMany(productRepository::findProductDetails)
+                        .count())
+                .reduce(0L, Long::sum);
+    }
+}
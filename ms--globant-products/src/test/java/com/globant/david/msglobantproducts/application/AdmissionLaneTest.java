@@ -0,0 +1,66 @@
+package com.globant.david.msglobantproducts.application;
+
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("AdmissionLane")
+class AdmissionLaneTest extends UnitTest {
+
+    @Test
+    @DisplayName("Should queue work beyond the concurrency limit and run it when a slot frees up")
+    void shouldQueueAndDispatch() {
+        AdmissionLane lane = new AdmissionLane("test", 1, 1, Duration.ofSeconds(5));
+        Sinks.One<String> first = Sinks.one();
+
+        Disposable running = lane.submit(() -> first.asMono().flux()).subscribe();
+        StepVerifier.create(lane.submit(() -> Flux.just("second")))
+                .then(() -> {
+                    assertEquals(1, lane.queued());
+                    first.tryEmitValue("first");
+                })
+                .expectNext("second")
+                .verifyComplete();
+
+        running.dispose();
+        assertEquals(0, lane.active());
+        assertEquals(0, lane.queued());
+    }
+
+    @Test
+    @DisplayName("Should reject work when the queue is full")
+    void shouldRejectWhenQueueIsFull() {
+        AdmissionLane lane = new AdmissionLane("test", 1, 0, Duration.ofSeconds(5));
+
+        Disposable running = lane.submit(Flux::never).subscribe();
+
+        StepVerifier.create(lane.submit(() -> Flux.just("rejected")))
+                .expectError(AdmissionRejectedException.class)
+                .verify();
+        assertEquals(1, lane.rejectedCount());
+        running.dispose();
+        assertEquals(0, lane.active());
+    }
+
+    @Test
+    @DisplayName("Should reject queued work that waits too long and free its slot")
+    void shouldRejectAfterQueueWait() {
+        AdmissionLane lane = new AdmissionLane("test", 1, 1, Duration.ofMillis(50));
+
+        Disposable running = lane.submit(Flux::never).subscribe();
+
+        StepVerifier.create(lane.submit(() -> Flux.just("late")))
+                .expectError(AdmissionRejectedException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(0, lane.queued());
+        running.dispose();
+    }
+}
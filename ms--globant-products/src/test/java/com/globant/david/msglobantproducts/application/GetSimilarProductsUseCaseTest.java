@@ -4,17 +4,23 @@ import com.globant.david.msglobantproducts.domain.model.ProductDetail;
 import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
 import com.globant.david.msglobantproducts.testsupport.ObjectMother;
 import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @DisplayName("GetSimilarProductsUseCase")
@@ -23,9 +29,18 @@ class GetSimilarProductsUseCaseTest extends UnitTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private SimilarProductsPrefetcher prefetcher;
+
     private GetSimilarProductsUseCase useCase;
 
+    @BeforeEach
+    void setUp() {
+        useCase = new GetSimilarProductsUseCase(
+                productRepository, prefetcher, new AdmissionLane("miss", 1, 0, Duration.ofSeconds(1)));
+        lenient().when(productRepository.findCachedSimilarProducts(anyString())).thenReturn(Mono.empty());
+    }
+
     @Test
     @DisplayName("Should return similar products when repository returns data")
     void shouldReturnSimilarProducts() {
@@ -43,6 +58,8 @@ class GetSimilarProductsUseCaseTest extends UnitTest {
         StepVerifier.create(result)
                 .expectNextSequence(expectedProducts)
                 .verifyComplete();
+
+        verify(prefetcher).prefetchNeighbours(similarIds);
     }
 
     @Test
@@ -96,5 +113,34 @@ class GetSimilarProductsUseCaseTest extends UnitTest {
                         throwable instanceof RuntimeException &&
                         throwable.getMessage().equals("Service unavailable"))
                 .verify();
+
+        verifyNoInteractions(prefetcher);
+    }
+
+    @Test
+    @DisplayName("Should serve fully cached responses without touching the upstream path")
+    void shouldServeCachedResponsesSynchronously() {
+        String productId = ObjectMother.aProductId();
+        List<ProductDetail> cachedProducts = ObjectMother.aListOfProductDetails();
+        when(productRepository.findCachedSimilarProducts(productId)).thenReturn(Mono.just(cachedProducts));
+
+        StepVerifier.create(useCase.execute(productId))
+                .expectNextSequence(cachedProducts)
+                .verifyComplete();
+
+        verify(productRepository, never()).findSimilarIds(anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject misses when the miss lane is saturated")
+    void shouldRejectMissesWhenLaneIsSaturated() {
+        when(productRepository.findSimilarIds("1")).thenReturn(Mono.never());
+
+        StepVerifier.create(useCase.execute("1"))
+                .then(() -> StepVerifier.create(useCase.execute("2"))
+                        .expectError(AdmissionRejectedException.class)
+                        .verify())
+                .thenCancel()
+                .verify();
     }
 }
@@ -0,0 +1,165 @@
+package com.globant.david.msglobantproducts.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CacheSnapshotService")
+class CacheSnapshotServiceTest extends UnitTest {
+
+    private static final Duration DETAIL_TTL = Duration.ofMinutes(10);
+    private static final Duration IDS_TTL = Duration.ofMinutes(5);
+    private static final Duration AVAILABILITY_TTL = Duration.ofMinutes(1);
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should restore snapshotted entries with their remaining TTL")
+    void shouldRestoreEntries() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Cache<String, ProductDetail> details = detailCache();
+        Cache<String, List<String>> ids = idsCache();
+        details.put("1", ObjectMother.aProductDetail());
+        ids.put("1", ObjectMother.aListOfProductIds());
+        service(details, ids, file, NOW).snapshot();
+
+        Cache<String, ProductDetail> restoredDetails = detailCache();
+        Cache<String, List<String>> restoredIds = idsCache();
+        service(restoredDetails, restoredIds, file, NOW.plus(Duration.ofMinutes(4))).restore();
+
+        assertEquals(ObjectMother.aProductDetail(), restoredDetails.getIfPresent("1"));
+        assertEquals(ObjectMother.aListOfProductIds(), restoredIds.getIfPresent("1"));
+        Duration remaining = restoredDetails.policy().expireVariably().orElseThrow()
+                .getExpiresAfter("1").orElseThrow();
+        assertTrue(remaining.compareTo(Duration.ofMinutes(6)) <= 0);
+    }
+
+    @Test
+    @DisplayName("Should drop entries whose TTL elapsed since they were written")
+    void shouldDropStaleEntries() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Cache<String, ProductDetail> details = detailCache();
+        Cache<String, List<String>> ids = idsCache();
+        details.put("1", ObjectMother.aProductDetail());
+        ids.put("1", ObjectMother.aListOfProductIds());
+        service(details, ids, file, NOW).snapshot();
+
+        Cache<String, ProductDetail> restoredDetails = detailCache();
+        Cache<String, List<String>> restoredIds = idsCache();
+        service(restoredDetails, restoredIds, file, NOW.plus(Duration.ofMinutes(7))).restore();
+
+        assertNotNull(restoredDetails.getIfPresent("1"));
+        assertNull(restoredIds.getIfPresent("1"));
+    }
+
+    @Test
+    @DisplayName("Should restore availability flags still within their TTL")
+    void shouldRestoreAvailability() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Cache<String, Boolean> availability = availabilityCache();
+        availability.put("1", true);
+        service(detailCache(), availability, idsCache(), file, NOW).snapshot();
+
+        Cache<String, Boolean> restored = availabilityCache();
+        service(detailCache(), restored, idsCache(), file, NOW.plus(Duration.ofSeconds(20))).restore();
+        Cache<String, Boolean> expired = availabilityCache();
+        service(detailCache(), expired, idsCache(), file, NOW.plus(Duration.ofMinutes(2))).restore();
+
+        assertEquals(true, restored.getIfPresent("1"));
+        assertNull(expired.getIfPresent("1"));
+    }
+
+    @Test
+    @DisplayName("Should ignore a corrupt snapshot file")
+    void shouldIgnoreCorruptSnapshot() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Files.writeString(file, "not a snapshot");
+        Cache<String, ProductDetail> details = detailCache();
+
+        service(details, idsCache(), file, NOW).restore();
+
+        assertEquals(0, details.estimatedSize());
+    }
+
+    @Test
+    @DisplayName("Should snapshot and restore both tiers of a tiered cache")
+    void shouldSnapshotBothTiers() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Clock writeClock = Clock.fixed(NOW, ZoneOffset.UTC);
+        Cache<String, ProductDetail> onHeap = detailCache();
+        try (OffHeapProductDetailStore store = offHeapStore(writeClock)) {
+            TieredProductDetailCache details = new TieredProductDetailCache(onHeap, store, writeClock);
+            details.put("1", ObjectMother.aProductDetail());
+            details.put("2", ObjectMother.aProductDetail("2", "Off-heap only", BigDecimal.TEN));
+            onHeap.invalidate("2");
+            service(details, idsCache(), file, NOW).snapshot();
+        }
+
+        Clock restoreClock = Clock.fixed(NOW.plus(Duration.ofMinutes(4)), ZoneOffset.UTC);
+        try (OffHeapProductDetailStore restoredStore = offHeapStore(restoreClock)) {
+            TieredProductDetailCache restored = new TieredProductDetailCache(detailCache(), restoredStore, restoreClock);
+            service(restored, idsCache(), file, NOW.plus(Duration.ofMinutes(4))).restore();
+
+            assertEquals(2, restoredStore.size());
+            assertEquals(NOW.toEpochMilli(), restoredStore.peek("2").writtenAtMillis());
+            assertEquals("Off-heap only", restored.getIfPresent("2").name());
+        }
+    }
+
+    private static OffHeapProductDetailStore offHeapStore(Clock clock) {
+        return new OffHeapProductDetailStore(OffHeapProductDetailStore.Mode.DIRECT, 4 * 128, 128, 1,
+                DETAIL_TTL, null, clock);
+    }
+
+    private static CacheSnapshotService service(Cache<String, ProductDetail> details,
+                                                Cache<String, List<String>> ids,
+                                                Path file, Instant now) {
+        return service(details, availabilityCache(), ids, file, now);
+    }
+
+    private static CacheSnapshotService service(Cache<String, ProductDetail> details,
+                                                Cache<String, Boolean> availability,
+                                                Cache<String, List<String>> ids,
+                                                Path file, Instant now) {
+        return new CacheSnapshotService(details, availability, ids, file, Duration.ofMinutes(1), DETAIL_TTL,
+                AVAILABILITY_TTL, IDS_TTL, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Cache<String, Boolean> availabilityCache() {
+        return Caffeine.newBuilder()
+                .expireAfter(Expiry.<String, Boolean>writing((key, value) -> AVAILABILITY_TTL))
+                .build();
+    }
+
+    private static Cache<String, ProductDetail> detailCache() {
+        return Caffeine.newBuilder()
+                .expireAfter(Expiry.<String, ProductDetail>writing((key, value) -> DETAIL_TTL))
+                .build();
+    }
+
+    private static Cache<String, List<String>> idsCache() {
+        return Caffeine.newBuilder()
+                .expireAfter(Expiry.<String, List<String>>writing((key, value) -> IDS_TTL))
+                .build();
+    }
+}
@@ -0,0 +1,239 @@
+package com.globant.david.msglobantproducts.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapProductDetailStore")
+class OffHeapProductDetailStoreTest extends UnitTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private MutableClock clock;
+    private OffHeapProductDetailStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        store = new OffHeapProductDetailStore(
+                OffHeapProductDetailStore.Mode.DIRECT, 4 * 128, 128, 1, TTL, null, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should round-trip product details through off-heap memory")
+    void shouldRoundTripProductDetails() {
+        ProductDetail product = ObjectMother.aProductDetail();
+
+        store.put(product.id(), product);
+
+        OffHeapProductDetailStore.Entry entry = store.get(product.id());
+        assertNotNull(entry);
+        assertEquals(product, entry.value());
+        assertEquals(1, store.hitCount());
+        assertEquals(128, store.usedBytes());
+    }
+
+    @Test
+    @DisplayName("Should drop entries older than the TTL")
+    void shouldExpireEntries() {
+        store.put("1", ObjectMother.aProductDetail());
+
+        clock.advance(TTL);
+
+        assertNull(store.get("1"));
+        assertEquals(0, store.size());
+        assertEquals(1, store.missCount());
+    }
+
+    @Test
+    @DisplayName("Should evict unreferenced entries first when full")
+    void shouldEvictWithSecondChance() {
+        for (int i = 1; i <= 4; i++) {
+            store.put(String.valueOf(i), product(i));
+        }
+        store.get("1");
+
+        store.put("5", product(5));
+
+        assertNotNull(store.get("1"));
+        assertNull(store.get("2"));
+        assertNotNull(store.get("5"));
+        assertEquals(4, store.size());
+        assertEquals(1, store.evictionCount());
+    }
+
+    @Test
+    @DisplayName("Should reject entries that do not fit in a slot")
+    void shouldRejectOversizedEntries() {
+        store.put("big", new ProductDetail("big", "x".repeat(200), BigDecimal.ONE, true));
+
+        assertNull(store.get("big"));
+        assertEquals(1, store.rejectionCount());
+    }
+
+    @Test
+    @DisplayName("Tiered cache should not bring back an older value after an oversized update")
+    void tieredCacheShouldDropOlderValueOnOversizedUpdate() {
+        Cache<String, ProductDetail> onHeap = Caffeine.newBuilder().build();
+        TieredProductDetailCache cache = new TieredProductDetailCache(onHeap, store, clock);
+        ProductDetail big = new ProductDetail("1", "x".repeat(200), BigDecimal.ONE, true);
+        cache.put("1", product(1));
+
+        cache.put("1", big);
+        assertEquals(big, cache.getIfPresent("1"));
+        onHeap.invalidate("1");
+
+        assertNull(cache.getIfPresent("1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should work on memory-mapped slabs")
+    void shouldWorkOnMappedSlabs(@TempDir Path dir) {
+        try (OffHeapProductDetailStore mapped = new OffHeapProductDetailStore(
+                OffHeapProductDetailStore.Mode.MAPPED, 1024, 128, 2, TTL, dir.resolve("slab.bin"), clock)) {
+            mapped.put("1", ObjectMother.aProductDetail());
+
+            assertEquals(ObjectMother.aProductDetail(), mapped.get("1").value());
+        }
+    }
+
+    @Test
+    @DisplayName("Tiered cache should promote off-heap hits to the on-heap tier")
+    void tieredCacheShouldPromoteHits() {
+        Cache<String, ProductDetail> onHeap = Caffeine.newBuilder()
+                .expireAfter(Expiry.<String, ProductDetail>writing((key, value) -> TTL))
+                .build();
+        TieredProductDetailCache cache = new TieredProductDetailCache(onHeap, store, clock);
+        cache.put("1", ObjectMother.aProductDetail());
+        onHeap.invalidate("1");
+
+        clock.advance(Duration.ofMinutes(4));
+
+        assertEquals(ObjectMother.aProductDetail(), cache.getIfPresent("1"));
+        assertNotNull(onHeap.getIfPresent("1"));
+        Duration remaining = onHeap.policy().expireVariably().orElseThrow().getExpiresAfter("1").orElseThrow();
+        assertTrue(remaining.compareTo(Duration.ofMinutes(6)) <= 0);
+    }
+
+    @Test
+    @DisplayName("Tiered cache should invalidate both tiers")
+    void tieredCacheShouldInvalidateBothTiers() {
+        TieredProductDetailCache cache = new TieredProductDetailCache(Caffeine.newBuilder().build(), store, clock);
+        cache.put("1", ObjectMother.aProductDetail());
+
+        cache.invalidate("1");
+
+        assertNull(cache.getIfPresent("1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Tiered cache map view and stats should cover the off-heap tier")
+    void tieredCacheViewsShouldCoverBothTiers() {
+        Cache<String, ProductDetail> onHeap = Caffeine.newBuilder().recordStats().build();
+        TieredProductDetailCache cache = new TieredProductDetailCache(onHeap, store, clock);
+        cache.put("1", product(1));
+        cache.put("2", product(2));
+        onHeap.invalidate("2");
+
+        cache.put("big", new ProductDetail("big", "x".repeat(200), BigDecimal.ONE, true));
+
+        assertEquals(3, cache.estimatedSize());
+        cache.invalidate("big");
+        assertEquals(Set.of("1", "2"), cache.asMap().keySet());
+        assertEquals(product(2), cache.asMap().get("2"));
+        assertNull(onHeap.getIfPresent("2"));
+
+        cache.getIfPresent("1");
+        cache.getIfPresent("2");
+        cache.getIfPresent("3");
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+
+        cache.asMap().keySet().removeIf(key -> key.equals("2"));
+        assertNull(cache.getIfPresent("2"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Tiered cache should visit entries of both tiers with their write time")
+    void tieredCacheShouldVisitEntriesWithWriteTime() {
+        Cache<String, ProductDetail> onHeap = Caffeine.newBuilder()
+                .expireAfter(Expiry.<String, ProductDetail>writing((key, value) -> TTL))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+        TieredProductDetailCache cache = new TieredProductDetailCache(onHeap, store, clock);
+        long writtenAt = clock.millis();
+        cache.put("1", product(1));
+        cache.put("big", new ProductDetail("big", "x".repeat(200), BigDecimal.ONE, true));
+        clock.advance(Duration.ofMinutes(1));
+
+        Map<String, OffHeapProductDetailStore.Entry> entries = new HashMap<>();
+        cache.forEachEntry(entries::put);
+
+        assertEquals(Set.of("1", "big"), entries.keySet());
+        assertEquals(writtenAt, entries.get("1").writtenAtMillis());
+        assertEquals(writtenAt, entries.get("big").writtenAtMillis());
+    }
+
+    private static ProductDetail product(int id) {
+        return ObjectMother.aProductDetail(String.valueOf(id), "Product " + id, new BigDecimal("10.00"));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
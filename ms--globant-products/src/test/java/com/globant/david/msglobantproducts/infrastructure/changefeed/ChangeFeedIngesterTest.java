@@ -0,0 +1,163 @@
+package com.globant.david.msglobantproducts.infrastructure.changefeed;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ChangeFeedIngester")
+class ChangeFeedIngesterTest extends UnitTest {
+
+    private Cache<String, ProductDetail> productDetailCache;
+    private Cache<String, Boolean> availabilityCache;
+    private Cache<String, List<String>> similarIdsCache;
+    private Cache<String, ComposedSimilarProducts> similarProductsCache;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ChangeFeedIngester ingester;
+
+    @BeforeEach
+    void setUp() {
+        productDetailCache = Caffeine.newBuilder().build();
+        availabilityCache = Caffeine.newBuilder().build();
+        similarIdsCache = Caffeine.newBuilder().build();
+        similarProductsCache = Caffeine.newBuilder().build();
+        ingester = ingester(null);
+
+        productDetailCache.put("2", ObjectMother.aProductDetail("2", "Pants", new BigDecimal("30.00")));
+        similarIdsCache.put("1", List.of("2", "3"));
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        similarProductsCache.put("1", ComposedSimilarProducts.of(ObjectMother.aListOfProductDetails(), jsonMapper));
+        similarProductsCache.put("5", ComposedSimilarProducts.of(
+                List.of(ObjectMother.aProductDetail("6", "Hat", BigDecimal.TEN)), jsonMapper));
+    }
+
+    @Test
+    @DisplayName("Should update product details in place and evict composed results containing them")
+    void shouldApplyProductUpdate() {
+        ProductDetail updated = ObjectMother.aProductDetail("2", "Pants v2", new BigDecimal("25.00"));
+
+        ingester.apply(new ProductChangeEvent(ProductChangeEvent.Type.PRODUCT_UPDATED, "2", updated, null));
+
+        assertEquals(updated, productDetailCache.getIfPresent("2"));
+        assertEquals(updated.availability(), availabilityCache.getIfPresent("2"));
+        assertNull(similarProductsCache.getIfPresent("1"));
+        assertNotNull(similarProductsCache.getIfPresent("5"));
+    }
+
+    @Test
+    @DisplayName("Should evict every entry of a deleted product")
+    void shouldApplyProductDeletion() {
+        ingester.apply(new ProductChangeEvent(ProductChangeEvent.Type.PRODUCT_DELETED, "1", null, null));
+
+        assertNull(similarIdsCache.getIfPresent("1"));
+        assertNull(similarProductsCache.getIfPresent("1"));
+        assertNotNull(productDetailCache.getIfPresent("2"));
+    }
+
+    @Test
+    @DisplayName("Should replace similar ids and evict the composed result")
+    void shouldApplySimilarityChange() {
+        ingester.apply(new ProductChangeEvent(ProductChangeEvent.Type.SIMILARITY_CHANGED, "1", null, List.of("4")));
+
+        assertEquals(List.of("4"), similarIdsCache.getIfPresent("1"));
+        assertNull(similarProductsCache.getIfPresent("1"));
+    }
+
+    @Test
+    @DisplayName("Should skip events that fail and keep ingesting after the source fails")
+    void shouldSurviveBadEventsAndSourceFailures(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("feed.jsonl");
+        Files.writeString(file, "");
+        AtomicInteger subscriptions = new AtomicInteger();
+        JsonlFileChangeFeedSource fileSource = new JsonlFileChangeFeedSource(
+                file, JsonMapper.builder().build(), true, Duration.ofMillis(50));
+        ChangeFeedSource source = () -> Flux.defer(() -> subscriptions.getAndIncrement() == 0
+                ? Flux.just(new ProductChangeEvent(null, "2", null, null))
+                        .concatWith(Flux.error(new IOException("feed unavailable")))
+                : fileSource.events());
+        ChangeFeedIngester resilient = ingester(source);
+
+        resilient.run(null);
+        try {
+            awaitUntil(() -> subscriptions.get() == 2);
+            append(file, """
+                    not json
+                    {"type":"SIMILARITY_CHANGED","productId":"1","similarIds":["4"]}
+                    """);
+            awaitUntil(() -> List.of("4").equals(similarIdsCache.getIfPresent("1")));
+        } finally {
+            resilient.stop();
+        }
+
+        assertEquals(List.of("4"), similarIdsCache.getIfPresent("1"));
+        assertEquals(1, meterRegistry.get("change.feed.events").tag("outcome", "failed").counter().count());
+        assertEquals(1, meterRegistry.get("change.feed.events").tag("outcome", "applied").counter().count());
+        assertEquals(1, meterRegistry.get("change.feed.resubscriptions").counter().count());
+    }
+
+    @Test
+    @DisplayName("File source should emit events appended after subscription")
+    void fileSourceShouldTailAppendedLines(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("feed.jsonl");
+        Files.writeString(file, "{\"type\":\"PRODUCT_DELETED\",\"productId\":\"old\"}\n");
+        JsonlFileChangeFeedSource source = new JsonlFileChangeFeedSource(
+                file, JsonMapper.builder().build(), false, Duration.ofMillis(50));
+
+        StepVerifier.create(source.events())
+                .then(() -> append(file, """
+                        not json
+                        {"type":"SIMILARITY_CHANGED","productId":"1","similarIds":["2"]}
+                        {"type":"PRODUCT_UPDATED","productId":"2","product":{"id":"2","name":"Pants","price":30.00,"availability":false}}
+                        """))
+                .assertNext(event -> {
+                    assertEquals(ProductChangeEvent.Type.SIMILARITY_CHANGED, event.type());
+                    assertEquals(List.of("2"), event.similarIds());
+                })
+                .assertNext(event -> assertEquals(Boolean.FALSE, event.product().availability()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    private ChangeFeedIngester ingester(ChangeFeedSource source) {
+        return new ChangeFeedIngester(source, productDetailCache, availabilityCache, similarIdsCache,
+                similarProductsCache, Duration.ofMillis(10), Duration.ofMillis(100), meterRegistry);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static void append(Path file, String content) {
+        try {
+            Files.writeString(file, content, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
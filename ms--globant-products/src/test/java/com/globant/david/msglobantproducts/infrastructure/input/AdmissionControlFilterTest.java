@@ -0,0 +1,134 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.application.AdmissionLane;
+import com.globant.david.msglobantproducts.application.GetSimilarProductsUseCase;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@DisplayName("AdmissionControlFilter")
+class AdmissionControlFilterTest extends UnitTest {
+
+    private static final WebFilterChain NEVER_COMPLETES = exchange -> Mono.never();
+    private static final WebFilterChain COMPLETES = exchange -> Mono.empty();
+
+    @Mock
+    private GetSimilarProductsUseCase getSimilarProductsUseCase;
+
+    @Test
+    @DisplayName("Should reject everything beyond the in-flight limit")
+    void shouldRejectBeyondInFlightLimit() {
+        AdmissionControlFilter filter = filter(1, 1);
+        filter.filter(similar("1"), NEVER_COMPLETES).subscribe();
+
+        MockServerWebExchange rejected = similar("2");
+        StepVerifier.create(filter.filter(rejected, COMPLETES)).verifyComplete();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @DisplayName("Should shed misses first and keep admitting cache hits under pressure")
+    void shouldShedMissesFirst() {
+        AdmissionControlFilter filter = filter(10, 1);
+        filter.filter(similar("1"), NEVER_COMPLETES).subscribe();
+        when(getSimilarProductsUseCase.isFullyCached("2")).thenReturn(true);
+        when(getSimilarProductsUseCase.isFullyCached("3")).thenReturn(false);
+
+        MockServerWebExchange hit = similar("2");
+        MockServerWebExchange miss = similar("3");
+        filter.filter(hit, COMPLETES).block();
+        filter.filter(miss, COMPLETES).block();
+
+        assertNull(hit.getResponse().getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, miss.getResponse().getStatusCode());
+        assertEquals(1, filter.inFlight());
+    }
+
+    @Test
+    @DisplayName("Should admit misses again once the miss lane queue drains")
+    void shouldAdmitMissesAgainWhenPressureGoesAway() throws InterruptedException {
+        AdmissionLane lane = new AdmissionLane("miss", 1, 10, Duration.ofSeconds(10));
+        AdmissionControlFilter filter = filter(lane, 10, 10, Duration.ofMillis(20));
+        when(getSimilarProductsUseCase.isFullyCached("3")).thenReturn(false);
+        Sinks.Empty<Void> slow = Sinks.empty();
+        Disposable running = lane.submit(() -> slow.asMono().flux()).subscribe();
+        Disposable waiting = lane.submit(Flux::empty).subscribe();
+        Thread.sleep(50);
+
+        MockServerWebExchange shed = similar("3");
+        filter.filter(shed, COMPLETES).block();
+        slow.tryEmitEmpty();
+        MockServerWebExchange admitted = similar("3");
+        filter.filter(admitted, COMPLETES).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals(Duration.ZERO, lane.oldestQueueWait());
+        assertNull(admitted.getResponse().getStatusCode());
+        running.dispose();
+        waiting.dispose();
+    }
+
+    @Test
+    @DisplayName("Should release the slot when the chain throws before returning")
+    void shouldReleaseSlotWhenChainThrows() {
+        AdmissionControlFilter filter = filter(1, 1);
+        WebFilterChain throwing = exchange -> {
+            throw new IllegalStateException("boom");
+        };
+
+        StepVerifier.create(filter.filter(similar("1"), throwing)).verifyError(IllegalStateException.class);
+
+        assertEquals(0, filter.inFlight());
+        MockServerWebExchange next = similar("2");
+        filter.filter(next, COMPLETES).block();
+        assertNull(next.getResponse().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should not touch other paths")
+    void shouldIgnoreOtherPaths() {
+        AdmissionControlFilter filter = filter(0, 0);
+        MockServerWebExchange health = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+
+        filter.filter(health, COMPLETES).block();
+
+        assertNull(health.getResponse().getStatusCode());
+    }
+
+    private AdmissionControlFilter filter(int maxInFlight, int shedMissesAbove) {
+        return filter(new AdmissionLane("miss", 10, 10, Duration.ofSeconds(1)), maxInFlight, shedMissesAbove,
+                Duration.ofMillis(500));
+    }
+
+    private AdmissionControlFilter filter(AdmissionLane missLane, int maxInFlight, int shedMissesAbove,
+                                          Duration maxQueueDelay) {
+        return new AdmissionControlFilter(
+                getSimilarProductsUseCase,
+                missLane,
+                new SimpleMeterRegistry(),
+                true, maxInFlight, shedMissesAbove, maxQueueDelay, Duration.ofSeconds(1));
+    }
+
+    private static MockServerWebExchange similar(String productId) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/product/" + productId + "/similar"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FlightRecordingsEndpoint")
+class FlightRecordingsEndpointTest extends UnitTest {
+
+    private final FlightRecordingsEndpoint endpoint = new FlightRecordingsEndpoint(
+            Duration.ofMinutes(5), DataSize.ofMegabytes(10), Duration.ofMinutes(10));
+    private Long id;
+
+    @AfterEach
+    void tearDown() {
+        if (id != null) {
+            endpoint.close(id);
+        }
+    }
+
+    @Test
+    @DisplayName("Should start, list and stop a recording")
+    void shouldStartAndStop() {
+        FlightRecordingsEndpoint.RecordingReport started = endpoint.start(null, Duration.ofMinutes(5), true);
+        assertNotNull(started);
+        id = started.id();
+
+        assertEquals(RecordingState.RUNNING, started.state());
+        assertTrue(endpoint.recordings().stream().anyMatch(recording -> recording.id() == id));
+        assertEquals(RecordingState.STOPPED, endpoint.stop(id).state());
+    }
+
+    @Test
+    @DisplayName("Should bound recordings started without a duration")
+    void shouldBoundRecordingWithoutDuration() {
+        FlightRecordingsEndpoint.RecordingReport started = endpoint.start("default", null, false);
+        assertNotNull(started);
+        id = started.id();
+
+        assertEquals(Duration.ofMinutes(5), started.duration());
+    }
+
+    @Test
+    @DisplayName("Should reject recordings longer than the maximum duration")
+    void shouldRejectLongRecording() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(null, Duration.ofHours(1), false));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(null, Duration.ZERO, false));
+    }
+
+    @Test
+    @DisplayName("Should download a running recording")
+    void shouldDownloadRunningRecording() throws Exception {
+        id = endpoint.start("default", null, false).id();
+
+        WebEndpointResponse<Resource> response = endpoint.download(id);
+
+        assertEquals(200, response.getStatus());
+        try (InputStream stream = response.getBody().getInputStream()) {
+            byte[] magic = stream.readNBytes(4);
+            assertArrayEquals(new byte[]{'F', 'L', 'R', 0}, magic);
+        }
+        assertTrue(endpoint.recordings().stream()
+                .anyMatch(recording -> recording.id() == id && recording.state() == RecordingState.RUNNING));
+    }
+
+    @Test
+    @DisplayName("Should not record the environment and system properties")
+    void shouldNotRecordHostEvents(@TempDir Path dir) throws Exception {
+        id = endpoint.start("default", null, false).id();
+        Path file = dir.resolve("app.jfr");
+        try (InputStream stream = endpoint.download(id).getBody().getInputStream()) {
+            Files.copy(stream, file);
+        }
+
+        Set<String> events = RecordingFile.readAllEvents(file).stream()
+                .map(event -> event.getEventType().getName())
+                .collect(Collectors.toSet());
+
+        assertFalse(events.contains("jdk.InitialEnvironmentVariable"));
+        assertFalse(events.contains("jdk.InitialSystemProperty"));
+        assertFalse(events.contains("jdk.JVMInformation"));
+    }
+
+    @Test
+    @DisplayName("Should answer 404 for unknown recordings")
+    void shouldReturnNotFoundForUnknownRecording() {
+        assertEquals(404, endpoint.download(-1).getStatus());
+        assertNull(endpoint.stop(-1));
+        assertNull(endpoint.close(-1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("NettyServerTuning")
+class NettyServerTuningTest extends UnitTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoopResources loopResources;
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        loopResources = LoopResources.create("test-server", 1, 1, true);
+        NettyServerTuning tuning = new NettyServerTuning(loopResources, true, null, 1, Duration.ofSeconds(5), -1, 16,
+                new NettyServerTuning.Http2Limits(10, 1 << 20, 16384, 8192), meterRegistry);
+        server = tuning.apply(HttpServer.create().port(0).protocol(HttpProtocol.HTTP11, HttpProtocol.H2C))
+                .handle((request, response) -> response.sendString(Mono.just("ok")))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+        loopResources.dispose();
+    }
+
+    @Test
+    @DisplayName("Should close connections beyond max-connections and keep serving the admitted one")
+    void shouldCloseConnectionsBeyondLimit() throws IOException {
+        try (Socket admitted = new Socket("localhost", server.port());
+             Socket excess = new Socket("localhost", server.port())) {
+            String response = exchange(admitted);
+            excess.setSoTimeout(2000);
+
+            assertEquals(-1, excess.getInputStream().read());
+            assertTrue(response.startsWith("HTTP/1.1 200"));
+            assertEquals(1, meterRegistry.get("netty.server.connections.rejected").counter().count());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpProtocol.class, names = {"H2C", "HTTP11"})
+    @DisplayName("Should serve h2c with prior knowledge and HTTP/1.1 on the same port")
+    void shouldServeH2cAndHttp11(HttpProtocol protocol) {
+        HttpClient client = HttpClient.create().port(server.port()).protocol(protocol);
+
+        String version = client.get().uri("/")
+                .responseSingle((response, body) -> body.asString()
+                        .map(text -> response.version().text() + " " + text))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(protocol == HttpProtocol.H2C ? "HTTP/2.0 ok" : "HTTP/1.1 ok", version);
+    }
+
+    private static String exchange(Socket socket) throws IOException {
+        socket.setSoTimeout(2000);
+        socket.getOutputStream().write("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        InputStream in = socket.getInputStream();
+        byte[] buffer = new byte[256];
+        int read = in.read(buffer);
+        return new String(buffer, 0, read, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,68 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.application.DegradedResponse;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.when;
+
+@DisplayName("PeerCacheController")
+class PeerCacheControllerTest extends UnitTest {
+
+    private WebTestClient webTestClient;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(new PeerCacheController(productRepository)).build();
+    }
+
+    @Test
+    @DisplayName("Should answer the product from this instance")
+    void shouldAnswerProduct() {
+        when(productRepository.findProductDetail("1")).thenReturn(Mono.just(ObjectMother.aProductDetail()));
+
+        webTestClient.get()
+                .uri("/internal/peers/products/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(ObjectMother.aProductDetail().id());
+    }
+
+    @Test
+    @DisplayName("Should answer 404 only when the upstream does not know the product")
+    void shouldAnswerNotFound() {
+        when(productRepository.findProductDetail("1")).thenReturn(Mono.empty());
+
+        webTestClient.get()
+                .uri("/internal/peers/products/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should answer 503 when the lookup failed, even with a stale copy")
+    void shouldAnswerUnavailableWhenDegraded() {
+        when(productRepository.findProductDetail("1")).thenReturn(DegradedResponse.fallback(Mono.empty()));
+        when(productRepository.findProductDetail("2"))
+                .thenReturn(DegradedResponse.fallback(Mono.just(ObjectMother.aProductDetail())));
+
+        webTestClient.get()
+                .uri("/internal/peers/products/1")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+        webTestClient.get()
+                .uri("/internal/peers/products/2")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+    }
+}
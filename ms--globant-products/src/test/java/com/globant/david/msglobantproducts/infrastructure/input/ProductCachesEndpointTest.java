@@ -0,0 +1,113 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.cache.OffHeapProductDetailStore;
+import com.globant.david.msglobantproducts.infrastructure.cache.TieredProductDetailCache;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ProductCachesEndpoint")
+class ProductCachesEndpointTest extends UnitTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private Cache<String, ProductDetail> productDetailCache;
+    private Cache<String, List<String>> similarIdsCache;
+    private ProductCachesEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        productDetailCache = Caffeine.newBuilder().maximumSize(10).recordStats().build();
+        similarIdsCache = Caffeine.newBuilder().maximumSize(10).recordStats().build();
+        endpoint = new ProductCachesEndpoint(
+                Map.of("productDetailCache", productDetailCache, "similarIdsCache", similarIdsCache),
+                productRepository);
+    }
+
+    @Test
+    @DisplayName("Should report size and hit/miss stats per cache")
+    void shouldReportStats() {
+        productDetailCache.put("1", ObjectMother.aProductDetail());
+        productDetailCache.getIfPresent("1");
+        productDetailCache.getIfPresent("2");
+
+        ProductCachesEndpoint.CacheReport report = endpoint.caches().get("productDetailCache");
+
+        assertEquals(1, report.size());
+        assertEquals(1, report.estimatedWeight());
+        assertEquals(1, report.hitCount());
+        assertEquals(1, report.missCount());
+        assertNull(endpoint.cache("unknown"));
+    }
+
+    @Test
+    @DisplayName("Should look up a single key")
+    void shouldLookUpKey() {
+        similarIdsCache.put("1", List.of("2", "3"));
+
+        assertEquals(List.of("2", "3"), endpoint.entry("similarIdsCache", "1"));
+        assertNull(endpoint.entry("similarIdsCache", "2"));
+    }
+
+    @Test
+    @DisplayName("Should evict by key and by prefix")
+    void shouldEvictByKeyAndPrefix() {
+        similarIdsCache.put("10", List.of());
+        similarIdsCache.put("11", List.of());
+        similarIdsCache.put("20", List.of());
+
+        assertEquals(1, endpoint.evict("similarIdsCache", "20", null).evicted());
+        assertEquals(2, endpoint.evict("similarIdsCache", null, "1").evicted());
+        assertEquals(0, similarIdsCache.estimatedSize());
+    }
+
+    @Test
+    @DisplayName("Should evict by prefix from both tiers of a tiered cache")
+    void shouldEvictByPrefixFromBothTiers() {
+        Cache<String, ProductDetail> onHeap = Caffeine.newBuilder().build();
+        try (OffHeapProductDetailStore store = new OffHeapProductDetailStore(OffHeapProductDetailStore.Mode.DIRECT,
+                4 * 128, 128, 1, Duration.ofMinutes(10), null)) {
+            TieredProductDetailCache tiered = new TieredProductDetailCache(onHeap, store);
+            tiered.put("10", ObjectMother.aProductDetail());
+            tiered.put("11", ObjectMother.aProductDetail());
+            tiered.put("20", ObjectMother.aProductDetail());
+            onHeap.invalidate("11");
+            ProductCachesEndpoint tieredEndpoint = new ProductCachesEndpoint(
+                    Map.of("productDetailCache", tiered), productRepository);
+
+            assertEquals(2, tieredEndpoint.evict("productDetailCache", null, "1").evicted());
+            assertNull(tiered.getIfPresent("11"));
+            assertNotNull(tiered.getIfPresent("20"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should preload ids through the repository")
+    void shouldPreloadThroughRepository() {
+        List<ProductDetail> products = ObjectMother.aListOfProductDetails();
+        when(productRepository.findSimilarIds("1")).thenReturn(Mono.just(List.of("2", "3", "4")));
+        when(productRepository.findProductDetails(List.of("2", "3", "4"))).thenReturn(Flux.fromIterable(products));
+
+        StepVerifier.create(endpoint.preload(List.of("1")))
+                .expectNext(new ProductCachesEndpoint.PreloadResult(1, products.size()))
+                .verifyComplete();
+    }
+}
@@ -1,19 +1,41 @@
 package com.globant.david.msglobantproducts.infrastructure.input;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.globant.david.msglobantproducts.application.AdmissionRejectedException;
+import com.globant.david.msglobantproducts.application.DegradedResponse;
 import com.globant.david.msglobantproducts.application.GetSimilarProductsUseCase;
 import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.cache.ComposedSimilarProducts;
+import com.globant.david.msglobantproducts.infrastructure.metrics.StageTimer;
 import com.globant.david.msglobantproducts.testsupport.ObjectMother;
 import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @DisplayName("ProductController")
@@ -21,13 +43,20 @@ class ProductControllerTest extends UnitTest {
 
     private WebTestClient webTestClient;
     private ProductController controller;
+    private Cache<String, ComposedSimilarProducts> similarProductsCache;
 
     @Mock
     private GetSimilarProductsUseCase getSimilarProductsUseCase;
 
     @BeforeEach
     void setUp() {
-        controller = new ProductController(getSimilarProductsUseCase);
+        similarProductsCache = Caffeine.newBuilder()
+                .expireAfter(Expiry.<String, ComposedSimilarProducts>writing((key, value) -> Duration.ofSeconds(30)))
+                .build();
+        SimilarProductsResponseComposer composer = new SimilarProductsResponseComposer(
+                JsonMapper.builder().build(), similarProductsCache, true, DataSize.ofBytes(0), new SimpleMeterRegistry());
+        controller = new ProductController(getSimilarProductsUseCase, similarProductsCache, composer, true,
+                Duration.ofSeconds(3));
         webTestClient = WebTestClient.bindToController(controller).build();
     }
 
@@ -111,4 +140,188 @@ class ProductControllerTest extends UnitTest {
                 .jsonPath("$[0].price").isEqualTo(10.00)
                 .jsonPath("$[0].availability").isEqualTo(true);
     }
+
+    @Test
+    @DisplayName("Should answer 304 when the client already has the current ETag")
+    void shouldAnswerNotModifiedForMatchingEtag() {
+        when(getSimilarProductsUseCase.execute("1"))
+                .thenReturn(Flux.fromIterable(ObjectMother.aListOfProductDetails()));
+
+        String etag = webTestClient.get()
+                .uri("/product/1/similar")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("Cache-Control", "max-age=(29|30), public")
+                .returnResult(byte[].class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get()
+                .uri("/product/1/similar")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", etag)
+                .expectBody().isEmpty();
+
+        verify(getSimilarProductsUseCase, times(1)).execute("1");
+    }
+
+    @Test
+    @DisplayName("Should neither cache nor let clients cache a response degraded by upstream failures")
+    void shouldNotCacheDegradedResponse() {
+        when(getSimilarProductsUseCase.execute("1"))
+                .thenReturn(DegradedResponse.fallback(Mono.just(ObjectMother.aProductDetail())).flux());
+
+        webTestClient.get()
+                .uri("/product/1/similar")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Cache-Control", "no-store")
+                .expectBodyList(ProductDetail.class)
+                .hasSize(1);
+
+        assertNull(similarProductsCache.getIfPresent("1"));
+    }
+
+    @Test
+    @DisplayName("Should serve the precompressed body to clients accepting gzip")
+    void shouldServePrecompressedBody() throws IOException {
+        when(getSimilarProductsUseCase.execute("1"))
+                .thenReturn(Flux.fromIterable(ObjectMother.aListOfProductDetails()));
+
+        byte[] gzipped = webTestClient.get()
+                .uri("/product/1/similar")
+                .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Content-Encoding", "gzip")
+                .expectHeader().valueEquals("Vary", "Accept-Encoding")
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        byte[] plain = webTestClient.get()
+                .uri("/product/1/similar")
+                .header("Accept-Encoding", "gzip;q=0, identity")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("Content-Encoding")
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertEquals(new String(plain), new String(in.readAllBytes()));
+        }
+        verify(getSimilarProductsUseCase, times(1)).execute("1");
+    }
+
+    @Test
+    @DisplayName("Should not precompress bodies below the threshold")
+    void shouldNotPrecompressSmallBodies() {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        List<ProductDetail> products = ObjectMother.aListOfProductDetails();
+
+        ComposedSimilarProducts composed = new SimilarProductsResponseComposer(
+                jsonMapper, similarProductsCache, true, DataSize.ofKilobytes(1), new SimpleMeterRegistry())
+                .compose(products);
+
+        assertNull(composed.gzipBody());
+        assertNotEquals(composed.etag(), ComposedSimilarProducts.of(products, jsonMapper, 0).gzipEtag());
+    }
+
+    @Test
+    @DisplayName("Should compute stable ETags for identical results")
+    void shouldComputeStableEtags() {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        List<ProductDetail> products = ObjectMother.aListOfProductDetails();
+
+        String first = ComposedSimilarProducts.of(products, jsonMapper).etag();
+
+        assertEquals(first, ComposedSimilarProducts.of(List.copyOf(products), jsonMapper).etag());
+        assertNotEquals(first, ComposedSimilarProducts.of(products.subList(0, 1), jsonMapper).etag());
+    }
+
+    @Test
+    @DisplayName("Should compare compositions by the content of their bodies")
+    void shouldCompareCompositionsByContent() {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        List<ProductDetail> products = ObjectMother.aListOfProductDetails();
+
+        ComposedSimilarProducts composed = ComposedSimilarProducts.of(products, jsonMapper, 0);
+        ComposedSimilarProducts same = ComposedSimilarProducts.of(List.copyOf(products), jsonMapper, 0);
+
+        assertEquals(composed, same);
+        assertEquals(composed.hashCode(), same.hashCode());
+        assertNotEquals(composed, ComposedSimilarProducts.of(products, jsonMapper, 0, true));
+        assertTrue(composed.toString().contains("body=" + composed.body().length + " bytes"));
+    }
+
+    @Test
+    @DisplayName("Should break the response time down in Server-Timing only when asked")
+    void shouldAddServerTimingWhenRequested() {
+        List<ProductDetail> products = ObjectMother.aListOfProductDetails();
+        when(getSimilarProductsUseCase.execute("1")).thenReturn(
+                StageTimer.stage(new SimpleMeterRegistry(), "similar_ids").time(Flux.fromIterable(products), "miss"));
+
+        String serverTiming = webTestClient.get()
+                .uri("/product/1/similar")
+                .header("X-Server-Timing", "true")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(byte[].class)
+                .getResponseHeaders()
+                .getFirst("Server-Timing");
+        webTestClient.get()
+                .uri("/product/1/similar")
+                .exchange()
+                .expectHeader().doesNotExist("Server-Timing");
+        String cachedServerTiming = webTestClient.get()
+                .uri("/product/1/similar")
+                .header("X-Server-Timing", "true")
+                .header("Accept-Encoding", "gzip")
+                .exchange()
+                .returnResult(byte[].class)
+                .getResponseHeaders()
+                .getFirst("Server-Timing");
+
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.matches("similar-ids;dur=[0-9.]+, cache;desc=\"hits=0 misses=1\", "
+                + "encode;dur=[0-9.]+;desc=\"identity\", total;dur=[0-9.]+"), serverTiming);
+        assertNotNull(cachedServerTiming);
+        assertTrue(cachedServerTiming.startsWith("cache;desc=\"response\", encode;desc=\"gzip\""), cachedServerTiming);
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with the configured Retry-After when the miss lane rejects")
+    void shouldAnswerRetryAfterWhenAdmissionRejected() {
+        when(getSimilarProductsUseCase.execute(anyString()))
+                .thenReturn(Flux.error(new AdmissionRejectedException("Lane misses rejected request: queue full")));
+
+        webTestClient.get()
+                .uri("/product/1/similar")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "3");
+    }
+
+    @Test
+    @DisplayName("Should time fast-lane answers in Server-Timing")
+    void shouldTimeFastLaneInServerTiming() {
+        List<ProductDetail> products = ObjectMother.aListOfProductDetails();
+        when(getSimilarProductsUseCase.execute("1")).thenReturn(
+                StageTimer.stage(new SimpleMeterRegistry(), "cached_response").hit(System.nanoTime(), products)
+                        .flatMapMany(Flux::fromIterable));
+
+        String serverTiming = webTestClient.get()
+                .uri("/product/1/similar")
+                .header("X-Server-Timing", "true")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(byte[].class)
+                .getResponseHeaders()
+                .getFirst("Server-Timing");
+
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.matches("cached-response;dur=[0-9.]+, cache;desc=\"hits=1 misses=0\", "
+                + "encode;dur=[0-9.]+;desc=\"identity\", total;dur=[0-9.]+"), serverTiming);
+    }
 }
@@ -0,0 +1,75 @@
+package com.globant.david.msglobantproducts.infrastructure.input;
+
+import com.globant.david.msglobantproducts.infrastructure.ratelimit.RateLimitProperties;
+import com.globant.david.msglobantproducts.infrastructure.ratelimit.TokenBucketTable;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateLimitingFilter")
+class RateLimitingFilterTest extends UnitTest {
+
+    private static final WebFilterChain CHAIN = exchange -> Mono.empty();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitingFilter filter = new RateLimitingFilter(
+            new RateLimitProperties(true, "X-Client-Id", 4, 100, Duration.ofMinutes(5), 1, 1,
+                    Map.of("internal", new RateLimitProperties.ClientClass(1, 3, List.of("checkout")))),
+            new TokenBucketTable(4, 100, Duration.ofMinutes(5)),
+            meterRegistry);
+
+    @Test
+    @DisplayName("Should answer 429 once a client exhausts its bucket")
+    void shouldLimitClient() {
+        assertNull(request("web").getResponse().getStatusCode());
+
+        MockServerWebExchange limited = request("web");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, limited.getResponse().getStatusCode());
+        assertEquals("1", limited.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, count("default", "limited"));
+    }
+
+    @Test
+    @DisplayName("Should apply the limits of the client's class")
+    void shouldApplyClassLimits() {
+        for (int i = 0; i < 3; i++) {
+            assertNull(request("checkout").getResponse().getStatusCode());
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, request("checkout").getResponse().getStatusCode());
+        assertEquals(3, count("internal", "allowed"));
+    }
+
+    @Test
+    @DisplayName("Should reject limits that never refill a token")
+    void shouldRejectNonPositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.ClientClass(0, 3, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties(
+                true, "X-Client-Id", 4, 100, Duration.ofMinutes(5), 0, 1, Map.of()));
+    }
+
+    private MockServerWebExchange request(String clientId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/product/1/similar").header("X-Client-Id", clientId));
+        filter.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+
+    private double count(String clientClass, String result) {
+        return meterRegistry.get("rate.limit.requests").tags("class", clientClass, "result", result).counter().count();
+    }
+}
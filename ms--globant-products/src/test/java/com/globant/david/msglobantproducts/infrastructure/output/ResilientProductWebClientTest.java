@@ -0,0 +1,154 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.globant.david.msglobantproducts.infrastructure.jfr.UpstreamCallEvent;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ValidatedProductResponse;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ResilientProductWebClient")
+class ResilientProductWebClientTest extends UnitTest {
+
+    private static final String PRODUCT_JSON = """
+            {"id":"1","name":"Shirt","price":9.99,"availability":true}""";
+
+    private WireMockServer upstream;
+    private Cache<String, ValidatedProductResponse> validatorCache;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ResilientProductWebClient client;
+
+    @BeforeEach
+    void setUp() {
+        upstream = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        upstream.start();
+        validatorCache = Caffeine.newBuilder().build();
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        client = new ResilientProductWebClient(
+                new UpstreamEndpoints(WebClient.builder().filter(UpstreamCallEvent.recordAttempts()), List.of(upstream.baseUrl()),
+                        UpstreamEndpoints.OutlierEjection.DEFAULTS, meterRegistry),
+                circuitBreakerRegistry, RetryRegistry.ofDefaults(),
+                validatorCache, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.stop();
+    }
+
+    @Test
+    @DisplayName("Should revalidate with If-None-Match and reuse the stored body on 304")
+    void shouldRevalidateWithEtag() {
+        upstream.stubFor(get(urlEqualTo("/product/1")).withHeader("If-None-Match", absent())
+                .willReturn(okJson(PRODUCT_JSON).withHeader("ETag", "\"v1\"")));
+        upstream.stubFor(get(urlEqualTo("/product/1")).withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304)));
+
+        ProductResponse first = client.getProduct("1").block();
+        StepVerifier.create(client.getProduct("1"))
+                .expectNext(first)
+                .verifyComplete();
+
+        assertEquals(1, revalidations("not_modified"));
+        upstream.verify(1, getRequestedFor(urlEqualTo("/product/1")).withHeader("If-None-Match", equalTo("\"v1\"")));
+    }
+
+    @Test
+    @DisplayName("Should send plain requests when the upstream sends no validators")
+    void shouldDegradeWithoutValidators() {
+        upstream.stubFor(get(urlEqualTo("/product/1")).willReturn(okJson(PRODUCT_JSON)));
+
+        client.getProduct("1").block();
+        client.getProduct("1").block();
+
+        assertNull(validatorCache.getIfPresent("1"));
+        assertEquals(2, revalidations("unconditional"));
+        upstream.verify(0, getRequestedFor(urlEqualTo("/product/1")).withHeader("If-None-Match", matching(".*")));
+    }
+
+    @Test
+    @DisplayName("Should fetch again without conditions on a 304 it has no stored body for")
+    void shouldRefetchOnUnexpectedNotModified() {
+        upstream.stubFor(get(urlEqualTo("/product/1")).withHeader("Cache-Control", absent())
+                .willReturn(aResponse().withStatus(304)));
+        upstream.stubFor(get(urlEqualTo("/product/1")).withHeader("Cache-Control", equalTo("no-cache"))
+                .willReturn(okJson(PRODUCT_JSON)));
+
+        StepVerifier.create(client.getProduct("1"))
+                .assertNext(product -> assertEquals("Shirt", product.name()))
+                .verifyComplete();
+
+        assertEquals(1, revalidations("unexpected_not_modified"));
+        assertEquals(0, circuitBreakerRegistry.circuitBreaker("productApiClient").getMetrics().getNumberOfFailedCalls());
+        upstream.verify(2, getRequestedFor(urlEqualTo("/product/1")).withoutHeader("If-None-Match"));
+    }
+
+    @Test
+    @DisplayName("Should keep background call failures out of the foreground circuit breaker")
+    void shouldIsolateBackgroundFailures() {
+        upstream.stubFor(get(urlEqualTo("/product/1")).willReturn(serverError()));
+
+        StepVerifier.create(client.getProduct("1")
+                        .contextWrite(Context.of(ResilientProductWebClient.BACKGROUND, true)))
+                .expectError()
+                .verify();
+
+        assertEquals(0, circuitBreakerRegistry.circuitBreaker("productApiClient").getMetrics().getNumberOfFailedCalls());
+        assertEquals(1, circuitBreakerRegistry.circuitBreaker("productApiPrefetch").getMetrics().getNumberOfFailedCalls());
+        upstream.verify(1, getRequestedFor(urlEqualTo("/product/1")));
+    }
+
+    @Test
+    @DisplayName("Should emit an upstream call event while a flight recording enables it")
+    void shouldRecordUpstreamCallEvent() throws Exception {
+        upstream.stubFor(get(urlEqualTo("/product/1")).willReturn(okJson(PRODUCT_JSON)));
+        Path dump = Files.createTempFile("upstream-calls", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(UpstreamCallEvent.NAME);
+            recording.start();
+            client.getProduct("1").block();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        assertEquals(1, events.size());
+        RecordedEvent event = events.getFirst();
+        assertEquals("product", event.getString("operation"));
+        assertEquals("1", event.getString("productId"));
+        assertEquals(upstream.baseUrl(), event.getString("endpoint"));
+        assertEquals(200, event.getInt("status"));
+        assertEquals(1, event.getInt("attempts"));
+        assertEquals("success", event.getString("outcome"));
+    }
+
+    private double revalidations(String result) {
+        return meterRegistry.get("upstream.revalidation").tag("result", result).counter().count();
+    }
+}
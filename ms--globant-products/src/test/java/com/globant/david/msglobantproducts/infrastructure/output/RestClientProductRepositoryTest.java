@@ -0,0 +1,83 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.globant.david.msglobantproducts.application.DegradedResponse;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RestClientProductRepository")
+class RestClientProductRepositoryTest extends UnitTest {
+
+    private WireMockServer upstream;
+    private Cache<String, ProductDetail> productDetailCache;
+    private Cache<String, Boolean> availabilityCache;
+    private RestClientProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        upstream = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        upstream.start();
+        productDetailCache = Caffeine.newBuilder().build();
+        availabilityCache = Caffeine.newBuilder().build();
+        repository = new RestClientProductRepository(
+                upstream.baseUrl(), 1000, Duration.ofSeconds(2),
+                CircuitBreakerRegistry.ofDefaults(), RetryRegistry.ofDefaults(),
+                productDetailCache, Caffeine.newBuilder().build(), availabilityCache, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.stop();
+    }
+
+    @Test
+    @DisplayName("Should fetch details in parallel keeping their order and skipping missing products")
+    void shouldFetchDetailsInOrder() {
+        upstream.stubFor(get(urlEqualTo("/product/1/similarids")).willReturn(okJson("[\"2\",\"3\",\"4\"]")));
+        upstream.stubFor(get(urlEqualTo("/product/2")).willReturn(okJson(product("2")).withFixedDelay(100)));
+        upstream.stubFor(get(urlEqualTo("/product/3")).willReturn(okJson(product("3"))));
+        upstream.stubFor(get(urlEqualTo("/product/4")).willReturn(notFound()));
+
+        DegradedResponse degraded = new DegradedResponse();
+        List<ProductDetail> details = repository.findProductDetails(repository.findSimilarIds("1", degraded), degraded);
+
+        assertEquals(List.of("2", "3"), details.stream().map(ProductDetail::id).toList());
+        assertTrue(availabilityCache.getIfPresent("2"));
+        assertFalse(degraded.isDegraded());
+    }
+
+    @Test
+    @DisplayName("Should serve cached attributes when the upstream fails")
+    void shouldServeStaleDetailOnError() {
+        ProductDetail stale = ObjectMother.aProductDetail();
+        productDetailCache.put("1", stale);
+        upstream.stubFor(get(urlEqualTo("/product/1")).willReturn(serverError()));
+
+        DegradedResponse degraded = new DegradedResponse();
+
+        assertEquals(stale, repository.findProductDetail("1", degraded).orElseThrow());
+        upstream.verify(getRequestedFor(urlEqualTo("/product/1")));
+        assertTrue(degraded.isDegraded());
+    }
+
+    private static String product(String id) {
+        return """
+                {"id":"%s","name":"Product %s","price":9.99,"availability":true}""".formatted(id, id);
+    }
+}
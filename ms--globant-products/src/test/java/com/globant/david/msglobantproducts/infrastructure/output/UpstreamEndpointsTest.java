@@ -0,0 +1,133 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("UpstreamEndpoints")
+class UpstreamEndpointsTest extends UnitTest {
+
+    private WireMockServer first;
+    private WireMockServer second;
+    private WireMockServer third;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        first = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        second = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        third = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        Stream.of(first, second, third).forEach(WireMockServer::start);
+        // Connections and classes are warmed up front so the first measured call is not an outlier
+        Stream.of(first, second, third).forEach(server -> WebClient.create(server.baseUrl()).get().uri("/")
+                .exchangeToMono(response -> response.releaseBody()).block());
+        Stream.of(first, second, third).forEach(WireMockServer::resetRequests);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Stream.of(first, second, third).forEach(WireMockServer::stop);
+    }
+
+    @Test
+    @DisplayName("Should send concurrent calls to the endpoint with fewer requests in flight")
+    void shouldPreferLeastOutstanding() {
+        stubOk(first, 200);
+        stubOk(second, 200);
+        UpstreamEndpoints endpoints = endpoints(new UpstreamEndpoints.OutlierEjection(5, 0, 20, Duration.ofMinutes(1), 50),
+                first, second);
+
+        Flux.range(0, 4).flatMap(i -> ping(endpoints)).blockLast();
+
+        assertEquals(2, first.countRequestsMatching(anyRequestedFor(anyUrl()).build()).getCount());
+        assertEquals(2, second.countRequestsMatching(anyRequestedFor(anyUrl()).build()).getCount());
+        assertEquals(2, meterRegistry.get("upstream.endpoint.requests")
+                .tags("endpoint", first.baseUrl(), "outcome", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should eject an endpoint after consecutive failures")
+    void shouldEjectFailingEndpoint() {
+        stubOk(first, 100);
+        stubOk(second, 100);
+        third.stubFor(get(urlEqualTo("/ping")).willReturn(serverError()));
+        UpstreamEndpoints endpoints = endpoints(new UpstreamEndpoints.OutlierEjection(3, 0, 20, Duration.ofMinutes(1), 50),
+                first, second, third);
+
+        for (int i = 0; i < 60; i++) {
+            ping(endpoints).block();
+        }
+        third.resetRequests();
+        for (int i = 0; i < 20; i++) {
+            ping(endpoints).block();
+        }
+
+        assertEquals(0, third.countRequestsMatching(anyRequestedFor(anyUrl()).build()).getCount());
+        assertEquals(1, meterRegistry.get("upstream.endpoint.ejections")
+                .tags("endpoint", third.baseUrl(), "reason", "errors").counter().count());
+        assertEquals(1, meterRegistry.get("upstream.endpoint.ejected").tag("endpoint", third.baseUrl()).gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should eject an endpoint much slower than the others")
+    void shouldEjectSlowEndpoint() {
+        stubOk(first, 0);
+        stubOk(second, 500);
+        UpstreamEndpoints endpoints = endpoints(new UpstreamEndpoints.OutlierEjection(5, 3.0, 2, Duration.ofMinutes(1), 50),
+                first, second);
+
+        Flux.range(0, 4).flatMap(i -> ping(endpoints)).blockLast();
+        Flux.range(0, 4).flatMap(i -> ping(endpoints)).blockLast();
+        second.resetRequests();
+        Flux.range(0, 4).flatMap(i -> ping(endpoints)).blockLast();
+
+        assertEquals(0, second.countRequestsMatching(anyRequestedFor(anyUrl()).build()).getCount());
+        assertEquals(1, meterRegistry.get("upstream.endpoint.ejections")
+                .tags("endpoint", second.baseUrl(), "reason", "latency").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should never eject the only endpoint")
+    void shouldKeepSingleEndpoint() {
+        first.stubFor(get(urlEqualTo("/ping")).willReturn(serverError()));
+        UpstreamEndpoints endpoints = endpoints(new UpstreamEndpoints.OutlierEjection(2, 0, 20, Duration.ofMinutes(1), 50),
+                first);
+
+        for (int i = 0; i < 5; i++) {
+            ping(endpoints).block();
+        }
+
+        assertEquals(5, first.countRequestsMatching(anyRequestedFor(anyUrl()).build()).getCount());
+        assertEquals(0, meterRegistry.get("upstream.endpoint.ejected").tag("endpoint", first.baseUrl()).gauge().value());
+    }
+
+    private UpstreamEndpoints endpoints(UpstreamEndpoints.OutlierEjection ejection, WireMockServer... servers) {
+        List<String> baseUrls = Stream.of(servers).map(WireMockServer::baseUrl).toList();
+        return new UpstreamEndpoints(WebClient.builder(), baseUrls, ejection, meterRegistry);
+    }
+
+    private static void stubOk(WireMockServer server, int delayMillis) {
+        server.stubFor(get(urlEqualTo("/ping")).willReturn(ok("pong").withFixedDelay(delayMillis)));
+    }
+
+    private static Mono<String> ping(UpstreamEndpoints endpoints) {
+        return endpoints.call(webClient -> webClient.get().uri("/ping").retrieve().bodyToMono(String.class))
+                .onErrorResume(e -> Mono.empty());
+    }
+}
@@ -0,0 +1,76 @@
+package com.globant.david.msglobantproducts.infrastructure.output;
+
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UpstreamFetchDetacher")
+class UpstreamFetchDetacherTest extends UnitTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should let a fetch complete after its subscriber cancels")
+    void shouldSalvageCancelledFetch() {
+        UpstreamFetchDetacher detacher = new UpstreamFetchDetacher(meterRegistry, true, 1);
+        Sinks.One<String> response = Sinks.one();
+        AtomicReference<String> cached = new AtomicReference<>();
+
+        Disposable subscription = detacher.detachOnCancel(response.asMono().doOnNext(cached::set)).subscribe();
+        subscription.dispose();
+        assertEquals(1, detacher.detachedInFlight());
+
+        response.tryEmitValue("product");
+
+        assertEquals("product", cached.get());
+        assertEquals(0, detacher.detachedInFlight());
+        assertEquals(1, fetches("salvaged"));
+    }
+
+    @Test
+    @DisplayName("Should cancel the fetch when the detach budget is exhausted")
+    void shouldCancelBeyondBudget() {
+        UpstreamFetchDetacher detacher = new UpstreamFetchDetacher(meterRegistry, true, 0);
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+
+        detacher.detachOnCancel(Mono.never().doOnCancel(() -> upstreamCancelled.set(true))).subscribe().dispose();
+
+        assertTrue(upstreamCancelled.get());
+        assertEquals(1, fetches("dropped"));
+    }
+
+    @Test
+    @DisplayName("Should pass values through untouched when not cancelled")
+    void shouldPassThroughValues() {
+        UpstreamFetchDetacher detacher = new UpstreamFetchDetacher(meterRegistry, true, 1);
+
+        assertEquals("product", detacher.detachOnCancel(Mono.just("product")).block());
+        assertEquals(0, detacher.detachedInFlight());
+    }
+
+    @Test
+    @DisplayName("Should run the fetch with the subscriber's context")
+    void shouldPropagateContext() {
+        UpstreamFetchDetacher detacher = new UpstreamFetchDetacher(meterRegistry, true, 1);
+
+        String value = detacher.detachOnCancel(Mono.deferContextual(context -> Mono.just(context.<String>get("key"))))
+                .contextWrite(Context.of("key", "value"))
+                .block();
+
+        assertEquals("value", value);
+    }
+
+    private double fetches(String result) {
+        return meterRegistry.get("upstream.detached.fetches").tag("result", result).counter().count();
+    }
+}
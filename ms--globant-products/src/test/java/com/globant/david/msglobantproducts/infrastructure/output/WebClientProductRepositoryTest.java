@@ -1,22 +1,41 @@
 package com.globant.david.msglobantproducts.infrastructure.output;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.globant.david.msglobantproducts.application.DegradedResponse;
 import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.metrics.StageTimer;
 import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
 import com.globant.david.msglobantproducts.testsupport.ObjectMother;
 import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
+import reactor.util.context.Context;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -33,14 +52,25 @@ class WebClientProductRepositoryTest extends UnitTest {
     @Mock
     private Cache<String, List<String>> similarIdsCache;
 
+    @Mock
+    private Cache<String, Boolean> availabilityCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private WebClientProductRepository repository;
 
     @BeforeEach
     void setUp() {
         repository = new WebClientProductRepository(
                 productWebClient,
+                ProductDetailPeers.NONE,
                 productDetailCache,
-                similarIdsCache
+                similarIdsCache,
+                availabilityCache,
+                new UpstreamFetchDetacher(meterRegistry, false, 0),
+                meterRegistry,
+                10,
+                false
         );
     }
 
@@ -95,17 +125,21 @@ class WebClientProductRepositoryTest extends UnitTest {
     }
 
     @Test
-    @DisplayName("Should return empty list on generic error")
+    @DisplayName("Should return an uncached empty list and mark the response degraded on generic error")
     void shouldReturnEmptyListOnError() {
         String productId = ObjectMother.aProductId();
         when(similarIdsCache.getIfPresent(productId)).thenReturn(null);
         when(productWebClient.getSimilarIds(anyString())).thenReturn(Mono.error(new RuntimeException("Service error")));
+        DegradedResponse degraded = new DegradedResponse();
 
-        Mono<List<String>> result = repository.findSimilarIds(productId);
+        Mono<List<String>> result = repository.findSimilarIds(productId)
+                .contextWrite(Context.of(DegradedResponse.CONTEXT_KEY, degraded));
 
         StepVerifier.create(result)
                 .expectNext(List.of())
                 .verifyComplete();
+        verify(similarIdsCache, never()).put(anyString(), any());
+        assertTrue(degraded.isDegraded());
     }
 
     @Test
@@ -114,6 +148,7 @@ class WebClientProductRepositoryTest extends UnitTest {
         String productId = ObjectMother.aProductId();
         ProductDetail cached = ObjectMother.aProductDetail();
         when(productDetailCache.getIfPresent(productId)).thenReturn(cached);
+        when(availabilityCache.getIfPresent(productId)).thenReturn(cached.availability());
 
         Mono<ProductDetail> result = repository.findProductDetail(productId);
 
@@ -124,6 +159,93 @@ class WebClientProductRepositoryTest extends UnitTest {
         verify(productWebClient, never()).getProduct(anyString());
     }
 
+    @Test
+    @DisplayName("Should merge cached availability into cached static attributes")
+    void shouldMergeCachedAvailability() {
+        String productId = ObjectMother.aProductId();
+        ProductDetail cached = ObjectMother.aProductDetail();
+        when(productDetailCache.getIfPresent(productId)).thenReturn(cached);
+        when(availabilityCache.getIfPresent(productId)).thenReturn(!cached.availability());
+
+        StepVerifier.create(repository.findProductDetail(productId))
+                .expectNext(cached.withAvailability(!cached.availability()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should refresh expired availability and serve cached attributes if the upstream fails")
+    void shouldServeStaleAttributesWhenAvailabilityRefreshFails() {
+        String productId = ObjectMother.aProductId();
+        ProductDetail cached = ObjectMother.aProductDetail();
+        when(productDetailCache.getIfPresent(productId)).thenReturn(cached);
+        when(productWebClient.getProduct(productId)).thenReturn(Mono.error(new RuntimeException("Service error")));
+
+        StepVerifier.create(repository.findProductDetail(productId))
+                .expectNext(cached)
+                .verifyComplete();
+
+        verify(productDetailCache, never()).put(anyString(), any(ProductDetail.class));
+    }
+
+    @Test
+    @DisplayName("Should serve the last known availability while refreshing in the background")
+    void shouldServeStaleAvailabilityWhileRefreshing() {
+        WebClientProductRepository staleRepository = new WebClientProductRepository(productWebClient,
+                ProductDetailPeers.NONE, productDetailCache, similarIdsCache, availabilityCache,
+                new UpstreamFetchDetacher(meterRegistry, false, 0), meterRegistry, 10, true);
+        String productId = ObjectMother.aProductId();
+        ProductDetail cached = ObjectMother.aProductDetail();
+        ProductResponse response = ObjectMother.aProductResponse();
+        Sinks.One<ProductResponse> upstream = Sinks.one();
+        when(productDetailCache.getIfPresent(productId)).thenReturn(cached);
+        when(productWebClient.getProduct(productId)).thenReturn(upstream.asMono());
+
+        StepVerifier.create(staleRepository.findProductDetail(productId))
+                .expectNext(cached)
+                .verifyComplete();
+        StepVerifier.create(staleRepository.findProductDetail(productId))
+                .expectNext(cached)
+                .verifyComplete();
+        upstream.tryEmitValue(response);
+
+        verify(productWebClient, times(1)).getProduct(productId);
+        verify(availabilityCache).put(productId, response.availability());
+        assertEquals(2, meterRegistry.get(StageTimer.STAGES)
+                .tags("stage", "product_detail", "outcome", "stale").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should keep failed availability refreshes out of the foreground circuit breaker")
+    void shouldRefreshOutsideForegroundCircuitBreaker() throws Exception {
+        WireMockServer upstream = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        upstream.start();
+        try {
+            upstream.stubFor(get("/product/1").willReturn(serverError()));
+            CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+            ResilientProductWebClient client = new ResilientProductWebClient(
+                    new UpstreamEndpoints(WebClient.builder(), List.of(upstream.baseUrl()),
+                            UpstreamEndpoints.OutlierEjection.DEFAULTS, meterRegistry),
+                    circuitBreakerRegistry, RetryRegistry.ofDefaults(), Caffeine.newBuilder().build(), meterRegistry);
+            WebClientProductRepository staleRepository = new WebClientProductRepository(client,
+                    ProductDetailPeers.NONE, productDetailCache, similarIdsCache, availabilityCache,
+                    new UpstreamFetchDetacher(meterRegistry, false, 0), meterRegistry, 10, true);
+            when(productDetailCache.getIfPresent("1")).thenReturn(ObjectMother.aProductDetail());
+            CircuitBreaker background = circuitBreakerRegistry.circuitBreaker("productApiPrefetch");
+
+            // A stale read while the previous refresh is still finishing starts none
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (background.getMetrics().getNumberOfFailedCalls() < 3 && System.nanoTime() < deadline) {
+                assertEquals(ObjectMother.aProductDetail(), staleRepository.findProductDetail("1").block());
+                Thread.sleep(20);
+            }
+
+            assertEquals(3, background.getMetrics().getNumberOfFailedCalls());
+            assertEquals(0, circuitBreakerRegistry.circuitBreaker("productApiClient").getMetrics().getNumberOfBufferedCalls());
+        } finally {
+            upstream.stop();
+        }
+    }
+
     @Test
     @DisplayName("Should fetch and cache product detail when not cached")
     void shouldFetchAndCacheProductDetail() {
@@ -143,6 +265,7 @@ class WebClientProductRepositoryTest extends UnitTest {
                 .verifyComplete();
 
         verify(productDetailCache).put(eq(productId), any(ProductDetail.class));
+        verify(availabilityCache).put(productId, response.availability());
     }
 
     @Test
@@ -243,4 +366,58 @@ class WebClientProductRepositoryTest extends UnitTest {
                                 list.stream().noneMatch(p -> p.id() == null))
                 .verifyComplete();
     }
+
+    @Test
+    @DisplayName("Should answer similar products from cache only when every part is cached")
+    void shouldAnswerCachedSimilarProductsOnlyWhenComplete() {
+        ProductDetail cached = ObjectMother.aProductDetail("2", "Product 2", new java.math.BigDecimal("20.00"));
+        when(similarIdsCache.getIfPresent("1")).thenReturn(List.of("2", "3"));
+        when(productDetailCache.getIfPresent("2")).thenReturn(cached);
+        when(availabilityCache.getIfPresent("2")).thenReturn(false);
+        when(productDetailCache.getIfPresent("3")).thenReturn(null);
+
+        StepVerifier.create(repository.findCachedSimilarProducts("1")).verifyComplete();
+
+        when(similarIdsCache.getIfPresent("1")).thenReturn(List.of("2"));
+
+        StepVerifier.create(repository.findCachedSimilarProducts("1"))
+                .expectNext(List.of(cached.withAvailability(false)))
+                .verifyComplete();
+        verifyNoInteractions(productWebClient);
+    }
+
+    @Test
+    @DisplayName("Should probe cached similar products without recording the lookup")
+    void shouldPeekCachedSimilarProductsQuietly() {
+        ProductDetail cached = ObjectMother.aProductDetail("2", "Product 2", new java.math.BigDecimal("20.00"));
+        when(similarIdsCache.asMap()).thenReturn(new ConcurrentHashMap<>(Map.of("1", List.of("2"))));
+        when(productDetailCache.asMap()).thenReturn(new ConcurrentHashMap<>(Map.of("2", cached)));
+        when(availabilityCache.asMap()).thenReturn(new ConcurrentHashMap<>(Map.of("2", true)));
+
+        assertEquals(List.of(cached.withAvailability(true)), repository.peekCachedSimilarProducts("1").orElseThrow());
+        assertTrue(repository.peekCachedSimilarProducts("3").isEmpty());
+        verify(similarIdsCache, never()).getIfPresent(anyString());
+        assertTrue(meterRegistry.find(StageTimer.STAGES).tag("stage", "cached_response").timers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should time lookups by stage and outcome")
+    void shouldTimeStagesByOutcome() {
+        when(similarIdsCache.getIfPresent("1")).thenReturn(List.of("2"));
+        WebClientResponseException notFound = WebClientResponseException.create(
+                404, "Not Found", null, null, StandardCharsets.UTF_8
+        );
+        when(productWebClient.getProduct("2")).thenReturn(Mono.error(notFound));
+
+        repository.findSimilarIds("1").block();
+        repository.findProductDetail("2").block();
+
+        assertEquals(1, stageCount("similar_ids", "hit"));
+        assertEquals(1, stageCount("product_detail", "not_found"));
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return meterRegistry.get(StageTimer.STAGES)
+                .tags("stage", stage, "outcome", outcome).timer().count();
+    }
 }
@@ -0,0 +1,198 @@
+package com.globant.david.msglobantproducts.infrastructure.output.catalog;
+
+import com.globant.david.msglobantproducts.application.DegradedResponse;
+import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@DisplayName("MappedCatalogProductRepository")
+class MappedCatalogProductRepositoryTest extends UnitTest {
+
+    private static final String DUMP = """
+            {"id":"1","name":"Shirt","price":9.99,"availability":true,"similarIds":["2","3"]}
+            {"id":"2","name":"Dress","price":19.99,"availability":false,"similarIds":["1"]}
+            {"id":"3","name":"Blazer","price":29.99,"availability":true,"similarIds":[]}
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private ProductRepository upstream;
+
+    private Path dumpFile;
+    private MappedCatalogProductRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dumpFile = dir.resolve("catalog.jsonl");
+        Files.writeString(dumpFile, DUMP);
+        repository = new MappedCatalogProductRepository(new CatalogCompiler(JsonMapper.builder().build()), dumpFile, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Should answer similar ids from the mapped catalog")
+    void shouldFindSimilarIds() {
+        StepVerifier.create(repository.findSimilarIds("1"))
+                .expectNext(List.of("2", "3"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should return an empty list for unknown products")
+    void shouldReturnEmptyForUnknownProducts() {
+        StepVerifier.create(repository.findSimilarIds("999"))
+                .expectNext(List.of())
+                .verifyComplete();
+        StepVerifier.create(repository.findProductDetail("999"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should answer product details from the mapped catalog")
+    void shouldFindProductDetails() {
+        StepVerifier.create(repository.findProductDetails(List.of("2", "999", "3")))
+                .expectNext(new ProductDetail("2", "Dress", new BigDecimal("19.99"), false))
+                .expectNext(new ProductDetail("3", "Blazer", new BigDecimal("29.99"), true))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should answer similar products synchronously")
+    void shouldAnswerSimilarProductsSynchronously() {
+        assertEquals(
+                List.of("Dress", "Blazer"),
+                repository.peekCachedSimilarProducts("1").orElseThrow().stream().map(ProductDetail::name).toList());
+        assertEquals(
+                List.of("Dress", "Blazer"),
+                repository.findCachedSimilarProducts("1").block().stream().map(ProductDetail::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should swap in a new catalog on reload")
+    void shouldReloadNewDump() throws IOException {
+        Files.writeString(dumpFile, """
+                {"id":"1","name":"Shirt v2","price":10.99,"availability":true,"similarIds":["3"]}
+                """);
+
+        repository.reload();
+
+        StepVerifier.create(repository.findSimilarIds("1"))
+                .expectNext(List.of("3"))
+                .verifyComplete();
+        StepVerifier.create(repository.findProductDetail("2"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should only reload when the ready marker is created")
+    void shouldReloadOnReadyMarker() throws Exception {
+        try (MappedCatalogProductRepository watched = new MappedCatalogProductRepository(
+                new CatalogCompiler(JsonMapper.builder().build()), dumpFile, true)) {
+            Files.writeString(dumpFile, """
+                    {"id":"1","name":"Shirt v2","price":10.99,"availability":true,"similarIds":["3"]}
+                    """);
+            Thread.sleep(500);
+            assertEquals(3, watched.size());
+
+            Path marker = dir.resolve("catalog.jsonl.ready");
+            Files.createFile(marker);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (watched.size() != 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(1, watched.size());
+            while (Files.exists(marker) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(Files.exists(marker));
+        }
+    }
+
+    @Test
+    @DisplayName("Fallback should use the catalog when the upstream yields nothing")
+    void fallbackShouldUseCatalog() {
+        when(upstream.findSimilarIds("1")).thenReturn(Mono.just(List.of()));
+        when(upstream.findProductDetail("2")).thenReturn(Mono.empty());
+        when(upstream.findProductDetail("3")).thenReturn(
+                Mono.just(new ProductDetail("3", "Upstream Blazer", new BigDecimal("30.00"), true)));
+        ProductRepository fallback = new CatalogFallbackProductRepository(upstream, repository, 1);
+
+        StepVerifier.create(fallback.findSimilarIds("1"))
+                .expectNext(List.of("2", "3"))
+                .verifyComplete();
+        StepVerifier.create(fallback.findProductDetails(List.of("2", "3")).map(ProductDetail::name))
+                .expectNext("Dress", "Upstream Blazer")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Fallback should not mark catalog answers as degraded")
+    void fallbackShouldNotDegradeCatalogAnswers() {
+        when(upstream.findSimilarIds("1")).thenReturn(DegradedResponse.fallback(Mono.just(List.of())));
+        when(upstream.findProductDetail("2")).thenReturn(DegradedResponse.fallback(Mono.empty()));
+        ProductRepository fallback = new CatalogFallbackProductRepository(upstream, repository, 1);
+        DegradedResponse degraded = new DegradedResponse();
+
+        StepVerifier.create(fallback.findSimilarIds("1")
+                        .contextWrite(Context.of(DegradedResponse.CONTEXT_KEY, degraded)))
+                .expectNext(List.of("2", "3"))
+                .verifyComplete();
+        StepVerifier.create(fallback.findProductDetail("2").map(ProductDetail::name)
+                        .contextWrite(Context.of(DegradedResponse.CONTEXT_KEY, degraded)))
+                .expectNext("Dress")
+                .verifyComplete();
+
+        assertFalse(degraded.isDegraded());
+    }
+
+    @Test
+    @DisplayName("Fallback should keep the mark of degraded upstream answers and of unfilled failures")
+    void fallbackShouldKeepUpstreamDegradation() {
+        ProductDetail stale = new ProductDetail("3", "Stale Blazer", new BigDecimal("30.00"), true);
+        when(upstream.findProductDetail("3")).thenReturn(DegradedResponse.fallback(Mono.just(stale)));
+        when(upstream.findProductDetail("9")).thenReturn(DegradedResponse.fallback(Mono.empty()));
+        ProductRepository fallback = new CatalogFallbackProductRepository(upstream, repository, 1);
+        DegradedResponse staleAnswer = new DegradedResponse();
+        DegradedResponse unfilled = new DegradedResponse();
+
+        StepVerifier.create(fallback.findProductDetail("3")
+                        .contextWrite(Context.of(DegradedResponse.CONTEXT_KEY, staleAnswer)))
+                .expectNext(stale)
+                .verifyComplete();
+        StepVerifier.create(fallback.findProductDetail("9")
+                        .contextWrite(Context.of(DegradedResponse.CONTEXT_KEY, unfilled)))
+                .verifyComplete();
+
+        assertTrue(staleAnswer.isDegraded());
+        assertTrue(unfilled.isDegraded());
+    }
+}
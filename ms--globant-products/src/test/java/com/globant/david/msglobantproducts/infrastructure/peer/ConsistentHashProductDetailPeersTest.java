@@ -0,0 +1,174 @@
+package com.globant.david.msglobantproducts.infrastructure.peer;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.globant.david.msglobantproducts.infrastructure.output.ResilientProductWebClient;
+import com.globant.david.msglobantproducts.infrastructure.output.dto.ProductResponse;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConsistentHashProductDetailPeers")
+class ConsistentHashProductDetailPeersTest extends UnitTest {
+
+    private static final String SELF = "http://localhost:1";
+    private static final ProductResponse UPSTREAM_PRODUCT = new ProductResponse("1", "Upstream", BigDecimal.ONE, true);
+
+    private WireMockServer peer;
+    private SimpleMeterRegistry meterRegistry;
+    private ConsistentHashProductDetailPeers peers;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Function<String, Mono<ProductResponse>> upstream = id -> Mono.fromCallable(() -> {
+        upstreamCalls.incrementAndGet();
+        return UPSTREAM_PRODUCT;
+    });
+
+    @BeforeEach
+    void setUp() {
+        peer = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        peer.start();
+        meterRegistry = new SimpleMeterRegistry();
+        peers = new ConsistentHashProductDetailPeers(WebClient.builder(), SELF, List.of(SELF, peer.baseUrl()),
+                100, Duration.ofSeconds(1), 2, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        peer.stop();
+    }
+
+    @Test
+    @DisplayName("Should ask the owning peer instead of the upstream")
+    void shouldLoadFromOwningPeer() {
+        String id = idOwnedBy(peer.baseUrl());
+        peer.stubFor(get(urlEqualTo("/internal/peers/products/" + id))
+                .willReturn(okJson("{\"id\":\"" + id + "\",\"name\":\"Peer\",\"price\":2,\"availability\":true}")));
+
+        StepVerifier.create(peers.load(id, upstream))
+                .assertNext(product -> assertEquals("Peer", product.name()))
+                .verifyComplete();
+
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(1, meterRegistry.get("peer.cache.loads").tag("source", "peer").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should load owned products and forwarded requests from the upstream")
+    void shouldLoadOwnedFromUpstream() {
+        String owned = idOwnedBy(SELF);
+        String remote = idOwnedBy(peer.baseUrl());
+
+        peers.load(owned, upstream).block();
+        peers.load(remote, upstream).contextWrite(Context.of(ConsistentHashProductDetailPeers.FORWARDED, true)).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, peer.getAllServeEvents().size());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the upstream when the owner fails, but not when it answers 404")
+    void shouldFallBackWhenOwnerFails() {
+        String failing = idOwnedBy(peer.baseUrl());
+        String missing = IntStream.range(0, 1_000).mapToObj(i -> "m" + i)
+                .filter(id -> peers.ownerOf(id).equals(peer.baseUrl()))
+                .findFirst().orElseThrow();
+        peer.stubFor(get(urlEqualTo("/internal/peers/products/" + failing)).willReturn(serverError()));
+        peer.stubFor(get(urlEqualTo("/internal/peers/products/" + missing)).willReturn(notFound()));
+
+        StepVerifier.create(peers.load(failing, upstream)).expectNext(UPSTREAM_PRODUCT).verifyComplete();
+        StepVerifier.create(peers.load(missing, upstream)).verifyError(WebClientResponseException.NotFound.class);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, meterRegistry.get("peer.cache.loads").tag("source", "fallback").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should share one load between concurrent requests for a product")
+    void shouldCoalesceConcurrentLoads() {
+        String id = idOwnedBy(peer.baseUrl());
+        peer.stubFor(get(urlEqualTo("/internal/peers/products/" + id))
+                .willReturn(okJson("{\"id\":\"" + id + "\",\"name\":\"Peer\"}").withFixedDelay(200)));
+
+        List<ProductResponse> products = Flux.range(0, 5).flatMap(i -> peers.load(id, upstream)).collectList().block();
+
+        assertEquals(5, products.size());
+        peer.verify(1, getRequestedFor(urlEqualTo("/internal/peers/products/" + id)));
+        assertEquals(4, meterRegistry.get("peer.cache.coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not share loads between background and foreground requests")
+    void shouldKeepBackgroundLoadsApart() {
+        String id = idOwnedBy(SELF);
+        Set<Boolean> backgroundContexts = ConcurrentHashMap.newKeySet();
+        Function<String, Mono<ProductResponse>> contextAware = productId -> Mono.deferContextual(context -> {
+            backgroundContexts.add(context.hasKey(ResilientProductWebClient.BACKGROUND));
+            return upstream.apply(productId).delayElement(Duration.ofMillis(100));
+        });
+
+        Mono.zip(peers.load(id, contextAware),
+                        peers.load(id, contextAware).contextWrite(Context.of(ResilientProductWebClient.BACKGROUND, true)))
+                .block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(Set.of(true, false), backgroundContexts);
+        assertEquals(0, meterRegistry.get("peer.cache.coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not unregister a newer flight when an ended one runs again")
+    void shouldKeepNewerFlightRegistered() {
+        ConsistentHashProductDetailPeers.FlightKey key = new ConsistentHashProductDetailPeers.FlightKey("1", false);
+        Mono<ProductResponse> ended = peers.singleFlight(key, () -> upstream.apply("1"));
+        ended.block();
+        Sinks.One<ProductResponse> pending = Sinks.one();
+        Mono<ProductResponse> newer = peers.singleFlight(key, pending::asMono);
+        newer.subscribe();
+
+        ended.block();
+
+        assertSame(newer, peers.singleFlight(key, () -> upstream.apply("1")));
+        assertEquals(1, meterRegistry.get("peer.cache.coalesced").counter().count());
+        pending.tryEmitValue(UPSTREAM_PRODUCT);
+    }
+
+    @Test
+    @DisplayName("Should keep products owned by a peer locally only once they are hot")
+    void shouldReplicateHotKeys() {
+        String owned = idOwnedBy(SELF);
+        String remote = idOwnedBy(peer.baseUrl());
+
+        assertTrue(peers.cacheLocally(owned));
+        assertFalse(peers.cacheLocally(remote));
+        assertTrue(peers.cacheLocally(remote));
+        assertEquals(1, meterRegistry.get("peer.cache.hot-keys").counter().count());
+    }
+
+    private String idOwnedBy(String owner) {
+        return IntStream.range(0, 1_000).mapToObj(String::valueOf)
+                .filter(id -> peers.ownerOf(id).equals(owner))
+                .findFirst().orElseThrow();
+    }
+}
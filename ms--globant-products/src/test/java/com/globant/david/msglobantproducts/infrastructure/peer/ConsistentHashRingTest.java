@@ -0,0 +1,48 @@
+package com.globant.david.msglobantproducts.infrastructure.peer;
+
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("ConsistentHashRing")
+class ConsistentHashRingTest extends UnitTest {
+
+    private static final List<String> NODES = List.of("http://a:5000", "http://b:5000", "http://c:5000");
+
+    @Test
+    @DisplayName("Should spread keys evenly over the nodes")
+    void shouldSpreadKeys() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 100);
+
+        Map<String, Long> owned = IntStream.range(0, 30_000).mapToObj(String::valueOf)
+                .collect(Collectors.groupingBy(ring::ownerOf, Collectors.counting()));
+
+        assertEquals(3, owned.size());
+        owned.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, "unbalanced: " + owned));
+    }
+
+    @Test
+    @DisplayName("Should only move the keys of a removed node")
+    void shouldOnlyMoveKeysOfRemovedNode() {
+        ConsistentHashRing full = new ConsistentHashRing(NODES, 100);
+        ConsistentHashRing reduced = new ConsistentHashRing(NODES.subList(0, 2), 100);
+
+        Map<String, String> before = IntStream.range(0, 10_000).mapToObj(String::valueOf)
+                .collect(Collectors.toMap(Function.identity(), full::ownerOf));
+
+        before.forEach((key, owner) -> {
+            if (!owner.equals("http://c:5000")) {
+                assertEquals(owner, reduced.ownerOf(key));
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.globant.david.msglobantproducts.infrastructure.prefetch;
+
+import com.globant.david.msglobantproducts.domain.repository.ProductRepository;
+import com.globant.david.msglobantproducts.infrastructure.output.ResilientProductWebClient;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BackgroundSimilarProductsPrefetcher")
+class BackgroundSimilarProductsPrefetcherTest extends UnitTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ResilientProductWebClient productWebClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should warm similar ids and details of the first neighbours")
+    void shouldWarmSecondDegreeNeighbours() {
+        when(productWebClient.isCircuitClosed()).thenReturn(true);
+        when(productWebClient.inFlightRequests()).thenReturn(0);
+        when(productRepository.findSimilarIds("2")).thenReturn(Mono.just(List.of("5", "6")));
+        when(productRepository.findProductDetail(anyString())).thenReturn(Mono.just(ObjectMother.aProductDetail()));
+        BackgroundSimilarProductsPrefetcher prefetcher = prefetcher(2, 1);
+
+        prefetcher.prefetchNeighbours(List.of("2", "3"));
+
+        verify(productRepository).findProductDetail("5");
+        verify(productRepository).findProductDetail("6");
+        verify(productRepository, never()).findSimilarIds("3");
+        assertEquals(2, prefetcher.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Should yield while the circuit breaker is not closed")
+    void shouldYieldWhenCircuitIsNotClosed() {
+        when(productWebClient.isCircuitClosed()).thenReturn(false);
+
+        prefetcher(2, 3).prefetchNeighbours(List.of("2", "3"));
+
+        verifyNoInteractions(productRepository);
+        assertEquals(1, meterRegistry.get("prefetch.neighbours").tag("result", "yielded").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should drop work beyond the upstream budget")
+    void shouldDropWorkBeyondBudget() {
+        when(productWebClient.isCircuitClosed()).thenReturn(true);
+        when(productWebClient.inFlightRequests()).thenReturn(0);
+        when(productRepository.findSimilarIds("2")).thenReturn(Mono.never());
+
+        prefetcher(1, 3).prefetchNeighbours(List.of("2", "3"));
+
+        verify(productRepository, never()).findSimilarIds("3");
+        assertEquals(1, meterRegistry.get("prefetch.neighbours").tag("result", "rejected").counter().count());
+    }
+
+    private BackgroundSimilarProductsPrefetcher prefetcher(int maxInFlight, int maxNeighbours) {
+        return new BackgroundSimilarProductsPrefetcher(
+                productRepository, productWebClient, meterRegistry, maxInFlight, maxNeighbours, 100);
+    }
+}
@@ -0,0 +1,86 @@
+package com.globant.david.msglobantproducts.infrastructure.ratelimit;
+
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucketTable")
+class TokenBucketTableTest extends UnitTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @Test
+    @DisplayName("Should allow a burst and then refill at the configured rate")
+    void shouldAllowBurstThenRefill() {
+        TokenBucketTable table = new TokenBucketTable(4, 100, Duration.ofMinutes(1), clock::get);
+
+        assertTrue(table.tryAcquire("client", 10, 2));
+        assertTrue(table.tryAcquire("client", 10, 2));
+        assertFalse(table.tryAcquire("client", 10, 2));
+
+        clock.addAndGet(100);
+
+        assertTrue(table.tryAcquire("client", 10, 2));
+        assertFalse(table.tryAcquire("client", 10, 2));
+    }
+
+    @Test
+    @DisplayName("Should keep independent buckets per client")
+    void shouldIsolateClients() {
+        TokenBucketTable table = new TokenBucketTable(4, 100, Duration.ofMinutes(1), clock::get);
+
+        assertTrue(table.tryAcquire("a", 1, 1));
+        assertFalse(table.tryAcquire("a", 1, 1));
+        assertTrue(table.tryAcquire("b", 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should bound memory and evict idle clients")
+    void shouldBoundMemoryAndEvictIdleClients() {
+        TokenBucketTable table = new TokenBucketTable(1, 2, Duration.ofSeconds(1), clock::get);
+        table.tryAcquire("a", 1, 1);
+        table.tryAcquire("b", 1, 1);
+
+        // Full: new clients share the overflow bucket
+        assertTrue(table.tryAcquire("c", 1, 1));
+        assertFalse(table.tryAcquire("d", 1, 1));
+        assertEquals(2, table.size());
+
+        clock.addAndGet(2_000);
+
+        assertTrue(table.tryAcquire("e", 1, 1));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    @DisplayName("Should tell refused clients how long until the next token")
+    void shouldReportWaitUntilNextToken() {
+        TokenBucketTable table = new TokenBucketTable(4, 100, Duration.ofMinutes(1), clock::get);
+
+        assertEquals(0, table.acquire("client", 10, 1));
+        assertEquals(100, table.acquire("client", 10, 1));
+
+        clock.addAndGet(40);
+
+        assertEquals(60, table.acquire("client", 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.acquire("client", 0, 1));
+    }
+
+    @Test
+    @DisplayName("Should keep existing clients on their own bucket when the stripe is full")
+    void shouldKeepExistingClientsWhenFull() {
+        TokenBucketTable table = new TokenBucketTable(1, 2, Duration.ofMinutes(1), clock::get);
+        table.tryAcquire("a", 1, 2);
+        table.tryAcquire("b", 1, 2);
+        assertTrue(table.tryAcquire("c", 1, 1));
+        assertFalse(table.tryAcquire("d", 1, 1));
+
+        assertTrue(table.tryAcquire("a", 1, 2));
+        assertEquals(2, table.size());
+    }
+}
@@ -0,0 +1,26 @@
+package com.globant.david.msglobantproducts.infrastructure.warmup;
+
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+@DisplayName("JitWarmupRunner")
+class JitWarmupRunnerTest extends UnitTest {
+
+    @Test
+    @DisplayName("Should serve every synthetic request through the stub upstream")
+    void shouldServeSyntheticRequests() {
+        JitWarmupRunner runner = new JitWarmupRunner(WebClient.builder(), JsonMapper.builder().build(),
+                true, DataSize.ofBytes(0), 200, 8, Duration.ofSeconds(30));
+
+        StepVerifier.create(runner.warmUp())
+                .expectNext(200L)
+                .verifyComplete();
+    }
+}
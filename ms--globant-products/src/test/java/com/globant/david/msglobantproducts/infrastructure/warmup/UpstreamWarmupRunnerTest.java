@@ -0,0 +1,86 @@
+package com.globant.david.msglobantproducts.infrastructure.warmup;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.globant.david.msglobantproducts.infrastructure.output.WebClientProductRepository;
+import com.globant.david.msglobantproducts.testsupport.ObjectMother;
+import com.globant.david.msglobantproducts.testsupport.UnitTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("UpstreamWarmupRunner")
+class UpstreamWarmupRunnerTest extends UnitTest {
+
+    @Mock
+    private WebClientProductRepository productRepository;
+
+    private WireMockServer upstream;
+
+    @BeforeEach
+    void setUp() {
+        upstream = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        upstream.start();
+        upstream.stubFor(head(urlEqualTo("/")).willReturn(notFound().withFixedDelay(50)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.stop();
+    }
+
+    @Test
+    @DisplayName("Should open the configured number of connections at once")
+    void shouldOpenConnections() {
+        StepVerifier.create(runner(4, List.of()).openConnections())
+                .expectNext(4L)
+                .verifyComplete();
+
+        upstream.verify(4, headRequestedFor(urlEqualTo("/")));
+    }
+
+    @Test
+    @DisplayName("Should preload the similar products of the hot keys through the repository")
+    void shouldPreloadHotKeys() {
+        when(productRepository.findSimilarIds("1")).thenReturn(Mono.just(List.of("2", "3")));
+        when(productRepository.findProductDetails(List.of("2", "3")))
+                .thenReturn(Flux.fromIterable(ObjectMother.aListOfProductDetails()).take(2));
+
+        runner(1, List.of("1")).run(new DefaultApplicationArguments());
+
+        verify(productRepository).findProductDetails(List.of("2", "3"));
+    }
+
+    @Test
+    @DisplayName("Should end the warm-up without failing startup when the upstream is down")
+    void shouldNotFailWhenUpstreamIsDown() {
+        UpstreamWarmupRunner runner = runner(2, List.of("1"));
+        upstream.stop();
+        when(productRepository.findSimilarIds("1")).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        runner.run(new DefaultApplicationArguments());
+
+        verify(productRepository, never()).findProductDetails(anyList());
+    }
+
+    private UpstreamWarmupRunner runner(int connections, List<String> hotKeys) {
+        return new UpstreamWarmupRunner(WebClient.builder(), List.of(upstream.baseUrl()), productRepository,
+                connections, hotKeys, Duration.ofSeconds(5));
+    }
+}
@@ -1,15 +1,20 @@
 package com.globant.david.msglobantproducts.integration;
 
 import com.globant.david.msglobantproducts.domain.model.ProductDetail;
+import com.globant.david.msglobantproducts.infrastructure.input.FlightRecordingsEndpoint;
 import com.globant.david.msglobantproducts.testsupport.WireMockIntegrationTest;
 import com.globant.david.msglobantproducts.testsupport.WireMockStubs;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -149,6 +154,29 @@ class ProductIntegrationTests extends WireMockIntegrationTest {
             assertTrue(result.isEmpty());
         }
 
+        @Test
+        @DisplayName("Should answer slow products instead of timing them out")
+        void shouldAnswerSlowProducts() {
+            stubs.stubSimilarIds("1", "2");
+            stubs.stubSlowProduct("2", "Slow Product", 3500);
+
+            List<ProductDetail> result = webTestClient.mutate()
+                    .responseTimeout(Duration.ofSeconds(10))
+                    .build()
+                    .get()
+                    .uri(productSimilarUrl("1"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(ProductDetail.class)
+                    .returnResult()
+                    .getResponseBody();
+
+            assertNotNull(result);
+            assertEquals(1, result.size());
+            assertEquals("Slow Product", result.getFirst().name());
+            stubs.verifyProductCalled("2");
+        }
+
         @Test
         @DisplayName("Should handle concurrent requests")
         void shouldHandleConcurrentRequests() {
@@ -298,4 +326,87 @@ class ProductIntegrationTests extends WireMockIntegrationTest {
                     .jsonPath("$.circuitBreakers.productApiClient").exists();
         }
     }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Should expose stage and upstream histograms for Prometheus")
+        void shouldExposeStageHistograms() {
+            stubs.stubSimilarIds("1", "2");
+            stubs.stubProduct("2", "Test Product", 10.00, true);
+
+            webTestClient.get()
+                    .uri(productSimilarUrl("1"))
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Every histogram publishes its buckets, so a scrape outgrows the default buffer
+            String scrape = webTestClient.mutate()
+                    .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                    .build()
+                    .get()
+                    .uri(prometheusUrl())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class)
+                    .returnResult()
+                    .getResponseBody();
+
+            assertNotNull(scrape);
+            assertTrue(scrape.contains("similar_products_stage_seconds_bucket{"));
+            assertTrue(scrape.contains("stage=\"product_detail\""));
+            assertTrue(scrape.contains("upstream_requests_seconds_count{"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Flight Recorder Tests")
+    class FlightRecorderTests {
+
+        @Test
+        @DisplayName("Should start, download and close a recording through the actuator")
+        void shouldManageRecording() {
+            FlightRecordingsEndpoint.RecordingReport started = webTestClient.post()
+                    .uri(flightRecordingsUrl())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("duration", "60s", "cacheLookups", true))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(FlightRecordingsEndpoint.RecordingReport.class)
+                    .returnResult()
+                    .getResponseBody();
+            assertNotNull(started);
+            assertEquals(Duration.ofSeconds(60), started.duration());
+            long id = started.id();
+
+            stubs.stubSimilarIds("1", "2");
+            stubs.stubProduct("2", "Test Product", 10.00, true);
+            webTestClient.get()
+                    .uri(productSimilarUrl("1"))
+                    .exchange()
+                    .expectStatus().isOk();
+
+            byte[] firstChunk = webTestClient.get()
+                    .uri(flightRecordingsUrl() + "/" + id)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .returnResult(byte[].class)
+                    .getResponseBody()
+                    .blockFirst();
+            assertNotNull(firstChunk);
+            assertEquals("FLR", new String(firstChunk, 0, 3, StandardCharsets.US_ASCII));
+
+            webTestClient.delete()
+                    .uri(flightRecordingsUrl() + "/" + id)
+                    .exchange()
+                    .expectStatus().isOk();
+            webTestClient.get()
+                    .uri(flightRecordingsUrl() + "/" + id)
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+    }
 }
@@ -117,4 +117,12 @@ public abstract class WireMockIntegrationTest {
     protected String circuitBreakersUrl() {
         return baseUrl() + "/actuator/circuitbreakers";
     }
+
+    protected String prometheusUrl() {
+        return baseUrl() + "/actuator/prometheus";
+    }
+
+    protected String flightRecordingsUrl() {
+        return baseUrl() + "/actuator/flightrecordings";
+    }
 }
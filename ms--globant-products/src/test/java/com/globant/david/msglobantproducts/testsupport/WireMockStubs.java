@@ -72,6 +72,21 @@ public class WireMockStubs {
                         .withBody(productJson(productId, name, price, availability))));
     }
 
+    /**
+     * Stubs a successful response for the product details endpoint, answered after a delay.
+     *
+     * @param productId   the product ID
+     * @param name        the product name
+     * @param delayMillis the delay before the response
+     */
+    public void stubSlowProduct(String productId, String name, int delayMillis) {
+        wireMockServer.stubFor(get(urlEqualTo("/product/" + productId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(productJson(productId, name, 10.00, true))
+                        .withFixedDelay(delayMillis)));
+    }
+
     /**
      * Stubs a 404 response for the product details endpoint.
      *
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Compares Netty transports and event-loop settings on Linux: for each configuration the
+# service is started, driven with compare-stacks.js at a fixed arrival rate and stopped.
+# Compare http_reqs and the p(99) of http_req_duration between runs.
+#
+#   docker-compose up -d simulado influxdb grafana
+#   (cd ms--globant-products && ./gradlew bootJar -PioUring)
+#   ./shared/k6/bench-transports.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+JAR=$(ls ms--globant-products/build/libs/*-SNAPSHOT.jar | head -1)
+RATE=${RATE:-2000}
+DURATION=${DURATION:-60s}
+
+declare -A CONFIGS=(
+  [nio]="--netty.native=false"
+  [native]="--netty.native=true"
+  [native-pooled]="--netty.native=true --netty.allocator=pooled"
+  [native-small-loops]="--netty.native=true --netty.server.worker-count=2 --netty.client.worker-count=2"
+)
+
+for name in "${!CONFIGS[@]}"; do
+  echo "=== $name: ${CONFIGS[$name]}"
+  # io_uring is picked over epoll when the jar includes it; exclude it for an epoll run
+  java -jar "$JAR" ${CONFIGS[$name]} > "/tmp/bench-$name.log" 2>&1 &
+  pid=$!
+  until curl -sf http://localhost:5000/actuator/health > /dev/null; do sleep 1; done
+  grep "Netty transport" "/tmp/bench-$name.log" || true
+  docker-compose run --rm k6 run -e STACK="$name" -e RATE="$RATE" -e DURATION="$DURATION" \
+    --summary-trend-stats "avg,p(95),p(99),max" scripts/compare-stacks.js
+  kill "$pid" && wait "$pid" || true
+done
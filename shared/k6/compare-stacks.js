@@ -0,0 +1,46 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+// Reactive vs blocking comparison: run once against the default profile and once against
+// the blocking profile (--spring.profiles.active=blocking), with the same mocks, and compare
+// http_reqs (throughput), the p(99) of http_req_duration and the heap printed at teardown.
+//   docker-compose run --rm k6 run -e STACK=reactive --summary-trend-stats "avg,p(95),p(99),max" scripts/compare-stacks.js
+
+const host = __ENV.HOST || "http://host.docker.internal:5000";
+const stack = __ENV.STACK || "unknown";
+
+export let options = {
+  scenarios: {
+    fanOut: {
+      executor: 'constant-arrival-rate',
+      rate: Number(__ENV.RATE || 500),
+      timeUnit: '1s',
+      duration: __ENV.DURATION || '60s',
+      preAllocatedVUs: 200,
+      maxVUs: 1000,
+      exec: "fanOut",
+    }
+  },
+  tags: { stack: stack }
+};
+
+// Fast, slow and failing products, so both stacks wait on the upstream
+const productIds = ["1", "2", "3", "4", "5"];
+
+export function fanOut() {
+  const id = productIds[Math.floor(Math.random() * productIds.length)];
+  const res = http.get(`${host}/product/${id}/similar`);
+  check(res, { "status is 200": r => r.status === 200 });
+}
+
+function metric(name) {
+  const res = http.get(`${host}/actuator/metrics/${name}`);
+  return res.status === 200 ? JSON.parse(res.body).measurements[0].value : NaN;
+}
+
+export function teardown() {
+  const mb = 1024 * 1024;
+  console.log(`[${stack}] heap used: ${(metric("jvm.memory.used?tag=area:heap") / mb).toFixed(1)} MB`
+      + `, live threads: ${metric("jvm.threads.live")}`
+      + `, committed: ${(metric("jvm.memory.committed") / mb).toFixed(1)} MB`);
+}
@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Drives /product/{id}/similar over h2c with h2load (nghttp2), which k6 cannot do: its HTTP/2
+# support requires TLS. Each of the CLIENTS connections multiplexes STREAMS requests, so
+# compare with an HTTP/1.1 run of the same URI list (--h1) at the same client count.
+#
+#   docker run --rm --network host nghttp2/nghttp2 h2load ...   (or a local h2load)
+#   ./shared/k6/h2load-similar.sh            # h2c, prior knowledge
+#   ./shared/k6/h2load-similar.sh --h1       # same load over HTTP/1.1
+set -euo pipefail
+
+HOST=${HOST:-http://localhost:5000}
+REQUESTS=${REQUESTS:-100000}
+CLIENTS=${CLIENTS:-50}
+STREAMS=${STREAMS:-100}   # keep <= netty.server.http2.max-concurrent-streams
+THREADS=${THREADS:-4}
+
+uris=$(mktemp)
+trap 'rm -f "$uris"' EXIT
+for id in 1 2 3 4 5; do
+  echo "$HOST/product/$id/similar" >> "$uris"
+done
+
+h2load -n "$REQUESTS" -c "$CLIENTS" -m "$STREAMS" -t "$THREADS" \
+  -H "Accept-Encoding: gzip" -i "$uris" "$@"
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Runs PEERS instances on localhost sharing one product detail cache through a static peer list,
+# then sends the same /similar requests to each and prints where the product loads came from.
+#   (cd ms--globant-products && ./gradlew bootJar)
+#   docker-compose up -d simulado
+#   ./shared/peers/run-peers.sh
+# Logs are in /tmp/peer-<port>.log.
+set -uo pipefail
+
+cd "$(dirname "$0")/../../ms--globant-products"
+JAR=$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -1)
+PEERS=${PEERS:-3}
+FIRST_PORT=${FIRST_PORT:-5001}
+IDS=${IDS:-"1 2 3 4 5"}
+
+ports=$(seq "$FIRST_PORT" $((FIRST_PORT + PEERS - 1)))
+urls=$(for port in $ports; do printf 'http://localhost:%s,' "$port"; done)
+urls=${urls%,}
+
+pids=()
+trap 'kill "${pids[@]}" 2> /dev/null; wait 2> /dev/null' EXIT
+for port in $ports; do
+  java -jar "$JAR" --server.port="$port" --warmup.upstream.enabled=false \
+    --cache.peers.enabled=true --cache.peers.self="http://localhost:$port" --cache.peers.urls="$urls" \
+    > "/tmp/peer-$port.log" 2>&1 &
+  pids+=($!)
+done
+for port in $ports; do
+  until curl -sf -o /dev/null "http://localhost:$port/actuator/health/readiness"; do sleep 0.2; done
+done
+
+for port in $ports; do
+  for id in $IDS; do
+    curl -s -o /dev/null "http://localhost:$port/product/$id/similar"
+  done
+done
+
+metric() {
+  curl -s "http://localhost:$1/actuator/metrics/$2${3:+?tag=$3}" | sed -E 's/.*"value":([0-9.E]+).*/\1/'
+}
+for port in $ports; do
+  echo "peer $port: owned $(metric "$port" peer.cache.loads source:owned)," \
+    "from peers $(metric "$port" peer.cache.loads source:peer)," \
+    "fallback $(metric "$port" peer.cache.loads source:fallback)," \
+    "coalesced $(metric "$port" peer.cache.coalesced)"
+done
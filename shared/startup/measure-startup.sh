@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Measures startup and time to first /similar response for each launch mode. Build first:
+#   (cd ms--globant-products && ./gradlew cdsArchive -Paot)          # jar + AOT + CDS archive
+#   (cd ms--globant-products && ./gradlew nativeImage -Paot)         # optional, needs GRAALVM_HOME
+#   docker-compose up -d simulado
+#   ./shared/startup/measure-startup.sh
+# The aot+cds mode needs a jar built with -Paot.
+# "ready" is Boot's application.ready.time; "first request" is measured from launch by polling.
+set -uo pipefail
+
+cd "$(dirname "$0")/../../ms--globant-products/build"
+JAR=$(basename "$(ls cds/*-SNAPSHOT.jar | head -1)")
+PORT=${PORT:-5000}
+RUNS=${RUNS:-5}
+
+declare -A MODES=(
+  [jar]="java -jar cds/$JAR"
+  [cds]="java -XX:SharedArchiveFile=cds/application.jsa -Xlog:cds=off -jar cds/$JAR"
+  [aot+cds]="java -XX:SharedArchiveFile=cds/application.jsa -Xlog:cds=off -Dspring.aot.enabled=true -jar cds/$JAR"
+)
+[ -x native/ms-globant-products ] && MODES[native]="native/ms-globant-products"
+
+now_ms() { date +%s%3N; }
+
+for mode in "${!MODES[@]}"; do
+  for run in $(seq "$RUNS"); do
+    start=$(now_ms)
+    ${MODES[$mode]} --server.port="$PORT" > "/tmp/startup-$mode.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/product/1/similar"; do
+      kill -0 "$pid" 2> /dev/null || { echo "$mode failed to start, see /tmp/startup-$mode.log"; continue 3; }
+      sleep 0.02
+    done
+    first=$(( $(now_ms) - start ))
+    ready=$(curl -s "http://localhost:$PORT/actuator/metrics/application.ready.time" \
+      | sed -E 's/.*"value":([0-9.E]+).*/\1/')
+    echo "$mode run $run: ready ${ready}s, first request ${first}ms"
+    kill "$pid"; wait "$pid" 2> /dev/null
+  done
+done